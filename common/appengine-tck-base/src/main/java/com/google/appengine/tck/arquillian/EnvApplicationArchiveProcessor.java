@@ -15,6 +15,9 @@
 
 package com.google.appengine.tck.arquillian;
 
+import com.google.appengine.tck.stats.ApiStatsExtensionClient;
+import com.google.appengine.tck.stats.ApiStatsExtensionContainer;
+import org.jboss.arquillian.container.test.spi.RemoteLoadableExtension;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
 
 /**
@@ -24,6 +27,17 @@ public abstract class EnvApplicationArchiveProcessor extends AbstractApplication
     protected void handleWebArchive(WebArchive war) {
         handleWebArchiveInternal(war);
         war.addAsWebInfResource("test-contexts.properties", "classes/test-contexts.properties");
+        if (ApiStatsExtensionClient.isEnabled()) {
+            handleApiStats(war);
+        }
+    }
+
+    /**
+     * Record API calls in the container, reported after each test class.
+     */
+    protected void handleApiStats(WebArchive war) {
+        war.addPackage(ApiStatsExtensionContainer.class.getPackage());
+        addService(war, RemoteLoadableExtension.class, ApiStatsExtensionContainer.class);
     }
 
     protected abstract void handleWebArchiveInternal(WebArchive war);
@@ -15,12 +15,11 @@
 
 package com.google.appengine.tck.arquillian;
 
-import java.io.File;
 import java.util.Set;
 
+import com.google.appengine.tck.lib.ArtifactCache;
 import org.jboss.shrinkwrap.api.Node;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
-import org.jboss.shrinkwrap.resolver.api.maven.Maven;
 
 /**
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
@@ -39,12 +38,7 @@ public class GaeApplicationArchiveProcessor extends AbstractApplicationArchivePr
         // do not add GAE jar; e.g. CapeDwarf can work off GAE module
         boolean ignoreGaeJar = Boolean.getBoolean("ignore.gae.jar");
         if (ignoreGaeJar == false) {
-            war.addAsLibraries(Maven.resolver()
-                .loadPomFromFile("pom.xml")
-                .resolve("com.google.appengine:appengine-api-1.0-sdk")
-                .withTransitivity()
-                .as(File.class)
-            );
+            war.addAsLibraries(ArtifactCache.resolve("pom.xml", true, "com.google.appengine:appengine-api-1.0-sdk"));
         }
     }
 }
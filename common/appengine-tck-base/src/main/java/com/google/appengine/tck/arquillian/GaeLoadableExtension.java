@@ -15,6 +15,7 @@
 
 package com.google.appengine.tck.arquillian;
 
+import com.google.appengine.tck.util.HttpClientStatsObserver;
 import org.jboss.arquillian.container.test.spi.client.deployment.ApplicationArchiveProcessor;
 import org.jboss.arquillian.core.spi.LoadableExtension;
 import org.kohsuke.MetaInfServices;
@@ -26,5 +27,6 @@ import org.kohsuke.MetaInfServices;
 public class GaeLoadableExtension implements LoadableExtension {
     public void register(ExtensionBuilder builder) {
         builder.service(ApplicationArchiveProcessor.class, GaeApplicationArchiveProcessor.class);
+        builder.observer(HttpClientStatsObserver.class);
     }
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.await;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.google.appengine.tck.timing.Timings;
+
+/**
+ * Wait for a condition, instead of sleeping for a fixed worst-case period.
+ * <p/>
+ * The condition is checked immediately, then with exponentially growing (jittered) pauses,
+ * until it's satisfied or the timeout expires.
+ * If a {@link Signal} is given, a pause ends as soon as it fires.
+ * <p/>
+ * e.g. Await.atMost(30, TimeUnit.SECONDS).until(condition)
+ */
+public class Await {
+    public static final long DEFAULT_POLL_INTERVAL = 50L;
+    public static final long DEFAULT_MAX_POLL_INTERVAL = 2000L;
+    public static final double DEFAULT_BACKOFF = 2.0;
+    public static final double DEFAULT_JITTER = 0.2;
+
+    private static final Logger log = Logger.getLogger(Await.class.getName());
+
+    private final long timeout;
+    private long pollInterval = DEFAULT_POLL_INTERVAL;
+    private long maxPollInterval = DEFAULT_MAX_POLL_INTERVAL;
+    private double backoff = DEFAULT_BACKOFF;
+    private double jitter = DEFAULT_JITTER;
+    private Signal signal;
+
+    private Await(long timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Negative timeout: " + timeout);
+        }
+        this.timeout = timeout;
+    }
+
+    public static Await atMost(long timeout, TimeUnit unit) {
+        return new Await(unit.toMillis(timeout));
+    }
+
+    /**
+     * Initial pause between two checks.
+     */
+    public Await pollInterval(long interval, TimeUnit unit) {
+        this.pollInterval = Math.max(1L, unit.toMillis(interval));
+        return this;
+    }
+
+    /**
+     * Upper bound for the growing pause between two checks.
+     */
+    public Await maxPollInterval(long interval, TimeUnit unit) {
+        this.maxPollInterval = Math.max(1L, unit.toMillis(interval));
+        return this;
+    }
+
+    /**
+     * Pause multiplier, 1.0 means fixed pause.
+     */
+    public Await backoff(double backoff) {
+        if (backoff < 1.0) {
+            throw new IllegalArgumentException("Backoff must be >= 1.0: " + backoff);
+        }
+        this.backoff = backoff;
+        return this;
+    }
+
+    /**
+     * Random pause deviation, as a fraction of the pause; 0 means no jitter.
+     */
+    public Await jitter(double jitter) {
+        if (jitter < 0.0 || jitter >= 1.0) {
+            throw new IllegalArgumentException("Jitter must be in [0, 1): " + jitter);
+        }
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * Cut pauses short when the signal fires.
+     */
+    public Await wakeOn(Signal signal) {
+        this.signal = signal;
+        return this;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Wait for condition.
+     *
+     * @param condition the condition
+     * @return the satisfying value
+     * @throws AwaitTimeoutException if condition is not satisfied in time
+     */
+    public <T> T until(Condition<T> condition) throws AwaitTimeoutException {
+        return await(condition, true);
+    }
+
+    /**
+     * Wait for condition, but do not fail on timeout.
+     *
+     * @param condition the condition
+     * @return the satisfying value, or the last supplied value on timeout
+     */
+    public <T> T poll(Condition<T> condition) {
+        return await(condition, false);
+    }
+
+    protected <T> T await(Condition<T> condition, boolean failOnTimeout) {
+        final long start = System.currentTimeMillis();
+        final long deadline = start + timeout;
+
+        long interval = Math.min(pollInterval, maxPollInterval);
+        int attempts = 0;
+        T value;
+        while (true) {
+            attempts++;
+            long seenVersion = (signal != null) ? signal.getVersion() : 0;
+            value = get(condition);
+            if (condition.isSatisfied(value)) {
+                return value;
+            }
+
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                break;
+            }
+            pause(seenVersion, Math.min(remaining, jittered(interval)));
+            interval = Math.min(maxPollInterval, (long) (interval * backoff));
+        }
+
+        AwaitTimeoutException ate = new AwaitTimeoutException(condition, attempts, System.currentTimeMillis() - start, value);
+        if (failOnTimeout) {
+            throw ate;
+        } else {
+            log.fine(ate.getMessage());
+            return value;
+        }
+    }
+
+    private long jittered(long interval) {
+        if (jitter == 0.0) {
+            return interval;
+        }
+        double deviation = interval * jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Math.max(1L, interval + (long) deviation);
+    }
+
+    private static <T> T get(Condition<T> condition) {
+        try {
+            return condition.get();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void pause(long seenVersion, long millis) {
+        final long start = System.currentTimeMillis();
+        try {
+            if (signal != null) {
+                signal.await(seenVersion, millis);
+            } else {
+                Thread.sleep(millis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            Timings.record(Timings.AWAIT, System.currentTimeMillis() - start);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.await;
+
+/**
+ * Condition was not satisfied in time.
+ */
+public class AwaitTimeoutException extends IllegalStateException {
+    private final int attempts;
+    private final long elapsed;
+    private final Object lastValue;
+
+    public AwaitTimeoutException(Condition<?> condition, int attempts, long elapsed, Object lastValue) {
+        super(String.format("Condition %s not satisfied after %s attempt(s) in %sms, last value: %s", condition, attempts, elapsed, lastValue));
+        this.attempts = attempts;
+        this.elapsed = elapsed;
+        this.lastValue = lastValue;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    public Object getLastValue() {
+        return lastValue;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.await;
+
+/**
+ * Something we wait for.
+ * <p/>
+ * By default a condition is satisfied as soon as it supplies a non-null value.
+ *
+ * @param <T> the supplied value type
+ */
+public abstract class Condition<T> {
+    /**
+     * Supply current value.
+     *
+     * @return current value, can be null
+     * @throws Exception for any error
+     */
+    public abstract T get() throws Exception;
+
+    /**
+     * Is current value good enough.
+     *
+     * @param value the value supplied by last get()
+     * @return true if we can stop waiting, false otherwise
+     */
+    public boolean isSatisfied(T value) {
+        return (value != null);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName();
+    }
+}
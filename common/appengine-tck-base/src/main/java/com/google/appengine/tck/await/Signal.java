@@ -0,0 +1,55 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.await;
+
+/**
+ * Versioned wake-up signal.
+ * <p/>
+ * Waiters remember the version they last saw, so a fire() between
+ * reading the version and waiting is never lost.
+ */
+public class Signal {
+    private long version;
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized void fire() {
+        version++;
+        notifyAll();
+    }
+
+    /**
+     * Wait for a fire() newer than the seen version.
+     *
+     * @param seenVersion the last seen version
+     * @param timeout     max wait in millis
+     * @return true if fired, false on timeout
+     * @throws InterruptedException if interrupted
+     */
+    public synchronized boolean await(long seenVersion, long timeout) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeout;
+        while (version == seenVersion) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+}
@@ -21,14 +21,19 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
+import com.google.appengine.api.datastore.AsyncDatastoreService;
 import com.google.appengine.api.datastore.DatastoreService;
 import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
@@ -38,15 +43,24 @@ import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
 import com.google.appengine.api.datastore.Transaction;
 import com.google.appengine.api.datastore.TransactionOptions;
+import com.google.appengine.tck.await.Await;
+import com.google.appengine.tck.await.Condition;
 import com.google.appengine.tck.category.IgnoreMultisuite;
+import com.google.appengine.tck.config.Configuration;
+import com.google.appengine.tck.deployment.DeploymentTimestamp;
 import com.google.appengine.tck.event.ExecutionLifecycleEvent;
 import com.google.appengine.tck.event.InstanceLifecycleEvent;
 import com.google.appengine.tck.event.Property;
 import com.google.appengine.tck.event.PropertyLifecycleEvent;
 import com.google.appengine.tck.event.TestLifecycleEvent;
 import com.google.appengine.tck.event.TestLifecycles;
+import com.google.appengine.tck.temp.AbstractTempData;
 import com.google.appengine.tck.temp.TempData;
 import com.google.appengine.tck.temp.TempDataFilter;
+import com.google.appengine.tck.temp.TempDataSignals;
+import com.google.appengine.tck.timing.Timings;
+import com.google.appengine.tck.util.BufferPool;
+import com.google.appengine.tck.util.IOUtils;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.jboss.shrinkwrap.api.asset.StringAsset;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
@@ -63,6 +77,9 @@ public class TestBase {
     protected static final String TIMESTAMP_TXT = "timestamp.txt";
 
     private static final String TEMP_DATA_READ_PROPERTY = "__read";
+    private static final int TEMP_DATA_BATCH_SIZE = 500;
+
+    private static volatile Configuration tckProperties;
 
     protected final Logger log = Logger.getLogger(getClass().getName());
 
@@ -98,6 +115,16 @@ public class TestBase {
         war.addPackage(TestLifecycles.class.getPackage());
         // temp data
         war.addPackage(TempData.class.getPackage());
+        // await
+        war.addPackage(Await.class.getPackage());
+        // config
+        war.addPackage(Configuration.class.getPackage());
+        // timing
+        war.addClass(Timings.class);
+        // deployment cache
+        war.addClass(DeploymentTimestamp.class);
+        // io
+        war.addClasses(IOUtils.class, BufferPool.class);
 
         // web.xml
         if (context.getWebXmlFile() != null) {
@@ -205,16 +232,37 @@ public class TestBase {
         return event.getInstance();
     }
 
+    /**
+     * Fixed sleep, as there is nothing to check; call sites that know what they wait for
+     * should use sync(Condition), which returns as soon as the condition holds.
+     */
     protected static void sync() {
         sync(DEFAULT_SLEEP);
     }
 
+    /**
+     * Wait until the condition holds, at most the default sleep; callers still assert the outcome.
+     *
+     * @param condition the condition
+     * @return the last supplied value
+     */
+    protected static <T> T sync(Condition<T> condition) {
+        return sync(DEFAULT_SLEEP, condition);
+    }
+
+    protected static <T> T sync(long maxSleep, Condition<T> condition) {
+        return Await.atMost(maxSleep, TimeUnit.MILLISECONDS).poll(condition);
+    }
+
     protected static void sync(final long sleep) {
+        final long start = System.currentTimeMillis();
         try {
             Thread.sleep(sleep);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IllegalStateException(e);
+        } finally {
+            Timings.record(Timings.SLEEP, System.currentTimeMillis() - start);
         }
     }
 
@@ -240,15 +288,12 @@ public class TestBase {
     }
 
     public static String getTestSystemProperty(String key, String defaultValue) {
-        try {
-            String value = readProperties(TCK_PROPERTIES).getProperty(key);
-            if (value == null) {
-                value = defaultValue;
-            }
-            return value;
-        } catch (IOException ioe) {
-            throw new IllegalStateException(ioe);
+        Configuration configuration = tckProperties;
+        if (configuration == null) {
+            configuration = Configuration.get(TestBase.class.getClassLoader(), TCK_PROPERTIES);
+            tckProperties = configuration;
         }
+        return configuration.getProperty(key, defaultValue);
     }
 
     protected static Properties readProperties(String name) throws IOException {
@@ -274,17 +319,12 @@ public class TestBase {
         DatastoreService ds = DatastoreServiceFactory.getDatastoreService();
         Transaction txn = ds.beginTransaction(TransactionOptions.Builder.withXG(true));
         try {
-            Class<? extends TempData> type = data.getClass();
-            String kind = getKind(type);
-            Entity entity = new Entity(kind);
-            for (Map.Entry<String, Object> entry : data.toProperties(ds).entrySet()) {
-                entity.setProperty(entry.getKey(), entry.getValue());
-            }
-            entity.setProperty(TEMP_DATA_READ_PROPERTY, false);
+            Entity entity = tempDataToEntity(data, ds);
             data.prePut(ds);
             Key key = ds.put(txn, entity);
             data.postPut(ds);
             txn.commit();
+            TempDataSignals.fire(key);
             return key;
         } catch (Exception e) {
             throw new IllegalStateException(e);
@@ -295,6 +335,51 @@ public class TestBase {
         }
     }
 
+    /**
+     * Put temp data with batched puts.
+     * Unlike single put, this is not transactional.
+     *
+     * @param data the temp data
+     * @return keys, in data order
+     */
+    public static List<Key> putTempData(Collection<? extends TempData> data) {
+        if (data.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        DatastoreService ds = DatastoreServiceFactory.getDatastoreService();
+        try {
+            List<Entity> entities = new ArrayList<>(data.size());
+            for (TempData td : data) {
+                entities.add(tempDataToEntity(td, ds));
+                td.prePut(ds);
+            }
+            List<Key> keys = putInBatches(entities);
+            for (TempData td : data) {
+                td.postPut(ds);
+            }
+
+            Set<String> kinds = new HashSet<>();
+            for (Key key : keys) {
+                if (kinds.add(key.getKind())) {
+                    TempDataSignals.fire(key);
+                }
+            }
+            return keys;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Entity tempDataToEntity(TempData data, DatastoreService ds) {
+        Entity entity = new Entity(getKind(data.getClass()));
+        for (Map.Entry<String, Object> entry : data.toProperties(ds).entrySet()) {
+            entity.setProperty(entry.getKey(), entry.getValue());
+        }
+        entity.setProperty(TEMP_DATA_READ_PROPERTY, false);
+        return entity;
+    }
+
     public static <T extends TempData> List<T> getAllTempData(Class<T> type) {
         return getAllTempData(type, false);
     }
@@ -314,12 +399,11 @@ public class TestBase {
                 query.addSort("timestamp", Query.SortDirection.ASCENDING);
             }
             PreparedQuery pq = ds.prepare(query);
-            Iterator<Entity> iter = pq.asIterator();
-            List<T> result = new ArrayList<>();
-            while (iter.hasNext()) {
-                Entity entity = iter.next();
-                T data = readTempData(type, entity, ds);
-                result.add(data);
+            List<Entity> entities = pq.asList(FetchOptions.Builder.withDefaults());
+            markRead(entities, ds);
+            List<T> result = new ArrayList<>(entities.size());
+            for (Entity entity : entities) {
+                result.add(entityToTempData(entity, type, ds));
             }
             return result;
         } catch (Exception e) {
@@ -345,6 +429,16 @@ public class TestBase {
         ds.put(entity);
     }
 
+    private static void markRead(List<Entity> entities, DatastoreService ds) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        for (Entity entity : entities) {
+            entity.setProperty(TEMP_DATA_READ_PROPERTY, true);
+        }
+        putInBatches(entities);
+    }
+
     public static <T extends TempData> T getLastTempData(Class<T> type) {
         try {
             DatastoreService ds = DatastoreServiceFactory.getDatastoreService();
@@ -369,35 +463,41 @@ public class TestBase {
      * @param timeout timeout in seconds
      * @return data or null, if no such data in timeout period
      */
-    public <T extends TempData> T pollForTempData(Class<T> type, int timeout) {
-        int secondsElapsed = 0;
-
-        while (secondsElapsed <= timeout) {
-            T data = getLastTempData(type);
-            if (data != null) {
-                return data;
+    public <T extends TempData> T pollForTempData(final Class<T> type, int timeout) {
+        return awaitTempData(type, timeout).poll(new Condition<T>() {
+            public T get() throws Exception {
+                return getLastTempData(type);
             }
-            sync(1000);
-            secondsElapsed += 1;
-        }
-        return null;
-    }
-
-    public <T extends TempData> T pollForTempData(Class<T> type, int timeout, TempDataFilter<T> filter) {
-        int secondsElapsed = 0;
 
-        while (secondsElapsed <= timeout) {
-            List<T> list = getAllUnreadTempData(type);
-            for (T t : list) {
-                boolean accepted = filter.accept(t);
-                if (accepted) {
-                    return t;
+            @Override
+            public String toString() {
+                return "TempData[" + type.getName() + "]";
+            }
+        });
+    }
+
+    public <T extends TempData> T pollForTempData(final Class<T> type, int timeout, final TempDataFilter<T> filter) {
+        return awaitTempData(type, timeout).poll(new Condition<T>() {
+            public T get() throws Exception {
+                List<T> list = getAllUnreadTempData(type);
+                for (T t : list) {
+                    boolean accepted = filter.accept(t);
+                    if (accepted) {
+                        return t;
+                    }
                 }
+                return null;
             }
-            sync(1000);
-            secondsElapsed += 1;
-        }
-        return null;
+
+            @Override
+            public String toString() {
+                return "TempData[" + type.getName() + ", " + filter + "]";
+            }
+        });
+    }
+
+    private static Await awaitTempData(Class<? extends TempData> type, int timeout) {
+        return Await.atMost(timeout, TimeUnit.SECONDS).wakeOn(TempDataSignals.getSignal(getKind(type)));
     }
 
     public static void deleteTempData(Class<? extends TempData> type) {
@@ -409,27 +509,78 @@ public class TestBase {
         String kind = getKind(type);
         DatastoreService ds = DatastoreServiceFactory.getDatastoreService();
 
-        final List<Entity> list = ds.prepare(new Query(kind)).asList(FetchOptions.Builder.withDefaults());
-        for (Entity e : list) {
-            deleteTempDataInTx(ds, e, type);
+        if (hasDeleteHooks(type)) {
+            final List<Entity> list = ds.prepare(new Query(kind)).asList(FetchOptions.Builder.withDefaults());
+            final List<TempData> data = new ArrayList<>(list.size());
+            final List<Key> keys = new ArrayList<>(list.size());
+            try {
+                for (Entity e : list) {
+                    TempData td = type.newInstance();
+                    td.fromProperties(e.getProperties());
+                    td.preDelete(ds);
+                    data.add(td);
+                    keys.add(e.getKey());
+                }
+                deleteInBatches(keys);
+                for (TempData td : data) {
+                    td.postDelete(ds);
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        } else {
+            final List<Key> keys = new ArrayList<>();
+            for (Entity e : ds.prepare(new Query(kind).setKeysOnly()).asIterable()) {
+                keys.add(e.getKey());
+            }
+            deleteInBatches(keys);
         }
     }
 
-    protected static void deleteTempDataInTx(DatastoreService ds, Entity entity, Class<? extends TempData> type) {
-        Transaction txn = ds.beginTransaction(TransactionOptions.Builder.withXG(true));
+    private static boolean hasDeleteHooks(Class<? extends TempData> type) {
         try {
-            TempData data = type.newInstance();
-            data.fromProperties(entity.getProperties());
-            data.preDelete(ds);
-            ds.delete(txn, entity.getKey());
-            data.postDelete(ds);
-            txn.commit();
-        } catch (Exception e) {
+            return type.getMethod("preDelete", DatastoreService.class).getDeclaringClass() != AbstractTempData.class
+                || type.getMethod("postDelete", DatastoreService.class).getDeclaringClass() != AbstractTempData.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    private static List<Key> putInBatches(List<Entity> entities) {
+        AsyncDatastoreService ads = DatastoreServiceFactory.getAsyncDatastoreService();
+        List<Future<List<Key>>> futures = new ArrayList<>();
+        for (int i = 0; i < entities.size(); i += TEMP_DATA_BATCH_SIZE) {
+            futures.add(ads.put(entities.subList(i, Math.min(entities.size(), i + TEMP_DATA_BATCH_SIZE))));
+        }
+        try {
+            List<Key> keys = new ArrayList<>(entities.size());
+            for (Future<List<Key>> future : futures) {
+                keys.addAll(future.get());
+            }
+            return keys;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new IllegalStateException(e);
-        } finally {
-            if (txn.isActive()) {
-                txn.rollback();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void deleteInBatches(List<Key> keys) {
+        AsyncDatastoreService ads = DatastoreServiceFactory.getAsyncDatastoreService();
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i += TEMP_DATA_BATCH_SIZE) {
+            futures.add(ads.delete(keys.subList(i, Math.min(keys.size(), i + TEMP_DATA_BATCH_SIZE))));
+        }
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
         }
     }
 
@@ -457,6 +608,10 @@ public class TestBase {
     }
 
     private static Object readTimestampInternal(Class<?> clazz) {
+        final Long pushed = DeploymentTimestamp.get(); // reused deployment
+        if (pushed != null) {
+            return pushed;
+        }
         final InputStream is = clazz.getClassLoader().getResourceAsStream(TIMESTAMP_TXT);
         if (is == null) {
             return new Object(); // marker
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+
+import com.google.appengine.api.ThreadManager;
+import com.google.appengine.tck.stats.Histogram;
+
+/**
+ * Minimal in-container microbenchmark: untimed warmup, then timed iterations.
+ * <p/>
+ * e.g. Benchmark.of("datastore.put").warmup(10).iterations(100).run(task)
+ * <p/>
+ * Every result is logged as "BENCHMARK name,iterations,ops,ops/s,mean,p50,p90,p99,max",
+ * so runs against different environments can be compared.
+ * <p/>
+ * With more than one thread, timed iterations are spread over request threads,
+ * and throughput is computed from wall clock time.
+ */
+public class Benchmark {
+    private static final Logger log = Logger.getLogger(Benchmark.class.getName());
+
+    private final String name;
+    private int warmup = 5;
+    private int iterations = 50;
+    private int operations = 1;
+    private int threads = 1;
+
+    private Benchmark(String name) {
+        this.name = name;
+    }
+
+    public static Benchmark of(String name) {
+        return new Benchmark(name);
+    }
+
+    /**
+     * Untimed iterations, run first.
+     */
+    public Benchmark warmup(int warmup) {
+        if (warmup < 0) {
+            throw new IllegalArgumentException("Negative warmup: " + warmup);
+        }
+        this.warmup = warmup;
+        return this;
+    }
+
+    public Benchmark iterations(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Need at least one iteration: " + iterations);
+        }
+        this.iterations = iterations;
+        return this;
+    }
+
+    /**
+     * Operations done by a single iteration, e.g. batch size; used for throughput.
+     */
+    public Benchmark operations(int operations) {
+        if (operations < 1) {
+            throw new IllegalArgumentException("Need at least one operation: " + operations);
+        }
+        this.operations = operations;
+        return this;
+    }
+
+    /**
+     * Concurrent threads for timed iterations; the task must be thread safe.
+     */
+    public Benchmark threads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    public BenchmarkResult run(BenchmarkTask task) throws Exception {
+        for (int i = -warmup; i < 0; i++) {
+            task.before(i);
+            task.run(i);
+            task.after(i);
+        }
+
+        Histogram latency = new Histogram();
+        long elapsed;
+        if (threads == 1) {
+            elapsed = 0;
+            for (int i = 0; i < iterations; i++) {
+                elapsed += timed(task, i, latency);
+            }
+        } else {
+            elapsed = runConcurrently(task, latency, ThreadManager.currentRequestThreadFactory());
+        }
+
+        return report(name, operations, latency, elapsed);
+    }
+
+    /**
+     * Log externally measured results, e.g. task execution latency, the same way.
+     *
+     * @param name         the benchmark name
+     * @param operations   operations per recorded value
+     * @param latency      recorded values, in microseconds
+     * @param elapsedNanos time the operations took, for throughput
+     * @return the result
+     */
+    public static BenchmarkResult report(String name, int operations, Histogram latency, long elapsedNanos) {
+        BenchmarkResult result = new BenchmarkResult(name, operations, latency, elapsedNanos);
+        log.info(result.toString());
+        log.info("BENCHMARK " + result.toCsv());
+        return result;
+    }
+
+    private static long timed(BenchmarkTask task, int iteration, Histogram latency) throws Exception {
+        task.before(iteration);
+        long start = System.nanoTime();
+        task.run(iteration);
+        long time = System.nanoTime() - start;
+        task.after(iteration);
+
+        latency.record(time / 1000);
+        return time;
+    }
+
+    private long runConcurrently(final BenchmarkTask task, final Histogram latency, ThreadFactory factory) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, factory);
+        try {
+            final long start = System.nanoTime();
+            List<Future<Void>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                final int first = t;
+                futures.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        for (int i = first; i < iterations; i += threads) {
+                            timed(task, i, latency);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Exception) {
+                        throw (Exception) cause;
+                    }
+                    throw e;
+                }
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.benchmark;
+
+import com.google.appengine.tck.stats.Histogram;
+
+/**
+ * Benchmark outcome; latencies are per iteration, in microseconds.
+ */
+public class BenchmarkResult {
+    private final String name;
+    private final int operations;
+    private final Histogram latency;
+    private final long elapsedNanos;
+
+    BenchmarkResult(String name, int operations, Histogram latency, long elapsedNanos) {
+        this.name = name;
+        this.operations = operations;
+        this.latency = latency;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getIterations() {
+        return latency.getCount();
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return timed operations per second
+     */
+    public double getThroughput() {
+        return (elapsedNanos > 0) ? getIterations() * operations * 1e9 / elapsedNanos : 0.0;
+    }
+
+    public long getPercentile(double percentile) {
+        return latency.getValueAtPercentile(percentile);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s x %s ops, %.1f ops/s, mean=%.0fus, p50=%sus, p90=%sus, p99=%sus, max=%sus",
+            name, getIterations(), operations, getThroughput(), latency.getMean(),
+            getPercentile(50), getPercentile(90), getPercentile(99), latency.getMax());
+    }
+
+    /**
+     * @return one comma separated line, for grepping results out of the logs
+     */
+    public String toCsv() {
+        return String.format("%s,%s,%s,%.1f,%.0f,%s,%s,%s,%s", name, getIterations(), operations, getThroughput(), latency.getMean(),
+            getPercentile(50), getPercentile(90), getPercentile(99), latency.getMax());
+    }
+}
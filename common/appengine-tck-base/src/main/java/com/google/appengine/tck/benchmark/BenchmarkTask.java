@@ -0,0 +1,47 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.benchmark;
+
+/**
+ * Benchmarked code; only run() is timed.
+ */
+public abstract class BenchmarkTask {
+    /**
+     * Prepare an iteration, e.g. create entities to delete.
+     *
+     * @param iteration the iteration, warmup iterations are negative
+     * @throws Exception for any error
+     */
+    public void before(int iteration) throws Exception {
+    }
+
+    /**
+     * The timed operation(s).
+     *
+     * @param iteration the iteration, warmup iterations are negative
+     * @throws Exception for any error
+     */
+    public abstract void run(int iteration) throws Exception;
+
+    /**
+     * Clean up an iteration.
+     *
+     * @param iteration the iteration, warmup iterations are negative
+     * @throws Exception for any error
+     */
+    public void after(int iteration) throws Exception {
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable snapshot of a properties resource, parsed once per classloader.
+ * <p/>
+ * Keys of the form "class#context" are additionally indexed by class name,
+ * so context lookups need no key building.
+ */
+public final class Configuration {
+    private static final Map<ClassLoader, ConcurrentMap<String, Configuration>> cache = Collections.synchronizedMap(new WeakHashMap<ClassLoader, ConcurrentMap<String, Configuration>>());
+
+    private final String resource;
+    private final Map<String, String> values;
+    private final Map<String, Map<String, String>> contexts;
+
+    private Configuration(String resource, Properties properties) {
+        this.resource = resource;
+
+        Map<String, String> values = new HashMap<>();
+        Map<String, Map<String, String>> contexts = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key);
+            values.put(key, value);
+
+            int p = key.indexOf('#');
+            if (p > 0) {
+                String className = key.substring(0, p);
+                Map<String, String> map = contexts.get(className);
+                if (map == null) {
+                    map = new HashMap<>();
+                    contexts.put(className, map);
+                }
+                map.put(key.substring(p + 1), value);
+            }
+        }
+        this.values = values;
+        this.contexts = contexts;
+    }
+
+    /**
+     * Get configuration, parsing the resource only on first access from this classloader.
+     *
+     * @param cl       the classloader
+     * @param resource the properties resource
+     * @return configuration snapshot
+     * @throws IllegalArgumentException if there is no such resource
+     */
+    public static Configuration get(ClassLoader cl, String resource) {
+        ConcurrentMap<String, Configuration> configurations;
+        synchronized (cache) {
+            configurations = cache.get(cl);
+            if (configurations == null) {
+                configurations = new ConcurrentHashMap<>();
+                cache.put(cl, configurations);
+            }
+        }
+
+        Configuration configuration = configurations.get(resource);
+        if (configuration == null) {
+            configuration = new Configuration(resource, load(cl, resource));
+            Configuration previous = configurations.putIfAbsent(resource, configuration);
+            if (previous != null) {
+                configuration = previous;
+            }
+        }
+        return configuration;
+    }
+
+    private static Properties load(ClassLoader cl, String resource) {
+        InputStream is = cl.getResourceAsStream(resource);
+        if (is == null) {
+            throw new IllegalArgumentException("No such resource: " + resource);
+        }
+
+        try {
+            Properties properties = new Properties();
+            properties.load(is);
+            return properties;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            try {
+                is.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    public String getProperty(String key) {
+        return values.get(key);
+    }
+
+    public String getProperty(String key, String defaultValue) {
+        String value = values.get(key);
+        return (value != null) ? value : defaultValue;
+    }
+
+    /**
+     * Lookup "caller#context" value.
+     *
+     * @param caller  the caller class
+     * @param context the context
+     * @return value or null if not configured
+     */
+    public String getContextValue(Class<?> caller, String context) {
+        Map<String, String> map = contexts.get(caller.getName());
+        return (map != null) ? map.get(context) : null;
+    }
+
+    /**
+     * Copy values into new mutable properties.
+     *
+     * @return properties copy
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.putAll(values);
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        return "Configuration[" + resource + "]";
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.deployment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.ArchiveAsset;
+import org.jboss.shrinkwrap.api.asset.Asset;
+
+/**
+ * Content hash of an archive.
+ * <p/>
+ * Entries are hashed in path order, nested archives by their content (not their zip bytes),
+ * and volatile assets (e.g. timestamp.txt) can be ignored by simple name.
+ */
+public final class ArchiveDigest {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ArchiveDigest() {
+    }
+
+    public static String digest(Archive<?> archive, String... ignoredNames) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            update(md, archive, new HashSet<>(Arrays.asList(ignoredNames)), new byte[8192]);
+            return toHex(md.digest());
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException("Cannot digest archive: " + archive.getName(), e);
+        }
+    }
+
+    public static String digest(Asset asset) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            update(md, asset, new byte[8192]);
+            return toHex(md.digest());
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException("Cannot digest asset: " + asset, e);
+        }
+    }
+
+    private static void update(MessageDigest md, Archive<?> archive, Set<String> ignoredNames, byte[] buffer) throws IOException {
+        Map<String, Node> content = new TreeMap<>();
+        for (Map.Entry<ArchivePath, Node> entry : archive.getContent().entrySet()) {
+            content.put(entry.getKey().get(), entry.getValue());
+        }
+
+        for (Map.Entry<String, Node> entry : content.entrySet()) {
+            String path = entry.getKey();
+            if (ignoredNames.contains(path.substring(path.lastIndexOf('/') + 1))) {
+                continue;
+            }
+
+            md.update(path.getBytes("UTF-8"));
+            Asset asset = entry.getValue().getAsset();
+            if (asset instanceof ArchiveAsset) {
+                update(md, ArchiveAsset.class.cast(asset).getArchive(), ignoredNames, buffer);
+            } else if (asset != null) {
+                update(md, asset, buffer);
+            }
+        }
+    }
+
+    private static void update(MessageDigest md, Asset asset, byte[] buffer) throws IOException {
+        try (InputStream is = asset.openStream()) {
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                md.update(buffer, 0, n);
+            }
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
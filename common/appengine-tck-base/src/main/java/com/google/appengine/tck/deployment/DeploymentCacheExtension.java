@@ -0,0 +1,46 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.deployment;
+
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.container.test.spi.client.deployment.AuxiliaryArchiveAppender;
+import org.jboss.arquillian.core.spi.LoadableExtension;
+import org.kohsuke.MetaInfServices;
+
+/**
+ * Reuse the previous test class' deployment if the next one is identical.
+ * <p/>
+ * Enabled with -Dtck.deployment.cache=true.
+ */
+@MetaInfServices
+public class DeploymentCacheExtension implements LoadableExtension {
+    private final boolean enabled;
+
+    public DeploymentCacheExtension() {
+        enabled = Boolean.getBoolean("tck.deployment.cache");
+        if (enabled) {
+            Logger.getLogger(DeploymentCacheExtension.class.getName()).info("Identical deployments are reused.");
+        }
+    }
+
+    public void register(ExtensionBuilder builder) {
+        if (enabled) {
+            builder.observer(DeploymentCacheObserver.class);
+            builder.service(AuxiliaryArchiveAppender.class, DeploymentCacheArchiveAppender.class);
+        }
+    }
+}
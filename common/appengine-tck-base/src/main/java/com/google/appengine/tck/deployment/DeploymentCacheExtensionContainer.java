@@ -0,0 +1,58 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.deployment;
+
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.container.test.spi.RemoteLoadableExtension;
+import org.jboss.arquillian.container.test.spi.command.CommandService;
+import org.jboss.arquillian.core.api.Instance;
+import org.jboss.arquillian.core.api.annotation.Inject;
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.core.spi.ServiceLoader;
+import org.jboss.arquillian.test.spi.event.suite.Before;
+
+/**
+ * Pulls the current deployment timestamp from the client, once per test class.
+ */
+public class DeploymentCacheExtensionContainer implements RemoteLoadableExtension {
+    public void register(ExtensionBuilder builder) {
+        builder.observer(TimestampTestObserver.class);
+    }
+
+    public static class TimestampTestObserver {
+        private static final Logger log = Logger.getLogger(TimestampTestObserver.class.getName());
+
+        @Inject
+        private Instance<ServiceLoader> serviceLoader;
+
+        private String currentClass;
+
+        public void before(@Observes(precedence = 200) Before event) {
+            String className = event.getTestClass().getName();
+            if (className.equals(currentClass)) {
+                return;
+            }
+            currentClass = className;
+            try {
+                Long timestamp = serviceLoader.get().onlyOne(CommandService.class).execute(new TimestampCommand());
+                DeploymentTimestamp.set((timestamp != null && timestamp >= 0) ? timestamp : null);
+            } catch (Exception e) {
+                log.warning("Cannot pull deployment timestamp: " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.deployment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.container.spi.client.container.DeployableContainer;
+import org.jboss.arquillian.container.spi.client.deployment.Deployment;
+import org.jboss.arquillian.container.spi.client.deployment.DeploymentDescription;
+import org.jboss.arquillian.container.spi.client.protocol.metadata.ProtocolMetaData;
+import org.jboss.arquillian.container.spi.context.annotation.DeploymentScoped;
+import org.jboss.arquillian.container.spi.event.DeployDeployment;
+import org.jboss.arquillian.container.spi.event.UnDeployDeployment;
+import org.jboss.arquillian.container.spi.event.container.BeforeStop;
+import org.jboss.arquillian.core.api.InstanceProducer;
+import org.jboss.arquillian.core.api.annotation.Inject;
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.core.spi.EventContext;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.Node;
+
+/**
+ * Defers undeploy until the next deploy on the same container;
+ * if the next archive has the same content hash, the deployed one is reused.
+ * Archive names are ignored, as they are mostly random.
+ * Timestamp asset is ignored too; it namespaces the test class' TempData,
+ * so the current one is handed to the container on request, see {@link TimestampCommand}.
+ */
+public class DeploymentCacheObserver {
+    private static final Logger log = Logger.getLogger(DeploymentCacheObserver.class.getName());
+
+    private static final String TIMESTAMP_TXT = "timestamp.txt";
+    private static final String TIMESTAMP_PATH = "/WEB-INF/classes/" + TIMESTAMP_TXT;
+
+    @Inject
+    @DeploymentScoped
+    private InstanceProducer<Deployment> deploymentInstance;
+
+    @Inject
+    @DeploymentScoped
+    private InstanceProducer<ProtocolMetaData> protocolMetaData;
+
+    private final Map<String, Deployed> deployments = new HashMap<>();
+
+    private int deploys;
+    private int avoided;
+    private long saved;
+    private long timestamp = -1;
+
+    public void deploy(@Observes EventContext<DeployDeployment> context) {
+        final DeployDeployment event = context.getEvent();
+        final DeploymentDescription description = event.getDeployment().getDescription();
+        if (description.isArchiveDeployment() == false) {
+            context.proceed();
+            return;
+        }
+
+        final Archive<?> archive = getArchive(description);
+        final String hash = getHash(archive);
+        final String key = event.getContainer().getName() + "/" + hash;
+
+        timestamp = getTimestamp(archive);
+
+        Deployed deployed = deployments.get(key);
+        if (deployed != null && deployed.pending) {
+            deployed.pending = false;
+            deployed.deployment = event.getDeployment();
+            deploymentInstance.set(event.getDeployment());
+            protocolMetaData.set(deployed.protocolMetaData);
+            event.getDeployment().deployed();
+
+            avoided++;
+            saved += deployed.deployTime;
+            log.info(String.format("Reusing deployment %s [%s], saved ~%sms.", archive.getName(), hash, deployed.deployTime));
+            return;
+        }
+
+        undeployPending(event.getDeployableContainer());
+
+        final long start = System.currentTimeMillis();
+        context.proceed();
+        final long deployTime = System.currentTimeMillis() - start;
+        deploys++;
+
+        if (event.getDeployment().isDeployed()) {
+            deployments.put(key, new Deployed(event.getDeployableContainer(), event.getDeployment(), archive, protocolMetaData.get(), deployTime));
+        }
+    }
+
+    public void undeploy(@Observes EventContext<UnDeployDeployment> context) {
+        final Deployment deployment = context.getEvent().getDeployment();
+        for (Deployed deployed : deployments.values()) {
+            if (deployed.deployment == deployment) {
+                deployed.pending = true; // keep it, the next class might need the same one
+                return;
+            }
+        }
+        context.proceed();
+    }
+
+    public void timestamp(@Observes TimestampCommand command) {
+        command.setResult(timestamp);
+    }
+
+    public void stop(@Observes BeforeStop event) {
+        undeployPending(event.getDeployableContainer());
+        log.info(String.format("Deployment cache: %s deploy(s), %s avoided, ~%sms saved.", deploys, avoided, saved));
+    }
+
+    private void undeployPending(DeployableContainer<?> container) {
+        Iterator<Deployed> iterator = deployments.values().iterator();
+        while (iterator.hasNext()) {
+            Deployed deployed = iterator.next();
+            if (deployed.pending && deployed.container == container) {
+                iterator.remove();
+                try {
+                    container.undeploy(deployed.archive);
+                } catch (Exception e) {
+                    log.warning("Cannot undeploy " + deployed.archive.getName() + ": " + e);
+                }
+            }
+        }
+    }
+
+    static String getHash(Archive<?> archive) {
+        return ArchiveDigest.digest(archive, TIMESTAMP_TXT);
+    }
+
+    /**
+     * @return the archive's timestamp, -1 if it has none
+     */
+    static long getTimestamp(Archive<?> archive) {
+        Node node = archive.get(TIMESTAMP_PATH);
+        if (node == null || node.getAsset() == null) {
+            return -1;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(node.getAsset().openStream()))) {
+            return Long.parseLong(reader.readLine().trim());
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Cannot read " + TIMESTAMP_PATH + " of " + archive.getName(), e);
+        }
+    }
+
+    private static Archive<?> getArchive(DeploymentDescription description) {
+        Archive<?> testable = description.getTestableArchive();
+        return (testable != null) ? testable : description.getArchive();
+    }
+
+    private static class Deployed {
+        private final DeployableContainer<?> container;
+        private final Archive<?> archive;
+        private final ProtocolMetaData protocolMetaData;
+        private final long deployTime;
+        private Deployment deployment;
+        private boolean pending;
+
+        private Deployed(DeployableContainer<?> container, Deployment deployment, Archive<?> archive, ProtocolMetaData protocolMetaData, long deployTime) {
+            this.container = container;
+            this.deployment = deployment;
+            this.archive = archive;
+            this.protocolMetaData = protocolMetaData;
+            this.deployTime = deployTime;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.deployment;
+
+/**
+ * Timestamp the client deployed the current test class with.
+ * <p/>
+ * A reused deployment still has the previous class' timestamp.txt,
+ * so the new one is pushed here, and TestBase prefers it.
+ */
+public final class DeploymentTimestamp {
+    private static volatile Long timestamp;
+
+    private DeploymentTimestamp() {
+    }
+
+    public static Long get() {
+        return timestamp;
+    }
+
+    static void set(Long timestamp) {
+        DeploymentTimestamp.timestamp = timestamp;
+    }
+}
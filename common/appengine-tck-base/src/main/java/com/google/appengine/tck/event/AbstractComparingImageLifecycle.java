@@ -0,0 +1,49 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.event;
+
+import java.util.logging.Logger;
+
+import com.google.appengine.tck.image.ImageComparator;
+import com.google.appengine.tck.image.ImageDiff;
+
+/**
+ * Compare images with a tolerance, instead of byte by byte.
+ * <p/>
+ * The com.google.appengine.tck.image package must be added to the deployment.
+ */
+public abstract class AbstractComparingImageLifecycle extends AbstractImageLifecycle {
+    private static final Logger log = Logger.getLogger(AbstractComparingImageLifecycle.class.getName());
+
+    /**
+     * Get comparator for the event.
+     *
+     * @param event the image event
+     * @return the comparator
+     */
+    protected abstract ImageComparator getComparator(ImageLifecycleEvent event);
+
+    protected void doBefore(ImageLifecycleEvent event) {
+        ImageDiff diff = getComparator(event).compare(event.getExpected().getImageData(), event.getTransformed().getImageData());
+        if (diff.isMatch() == false) {
+            log.info(String.format("Images differ, op %s: %s", event.getOp(), diff));
+        }
+        event.setResult(diff.isMatch());
+    }
+
+    protected void doAfter(ImageLifecycleEvent event) {
+    }
+}
@@ -15,33 +15,39 @@
 
 package com.google.appengine.tck.event;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.Properties;
 import java.util.logging.Logger;
 
+import com.google.appengine.tck.config.Configuration;
+
 /**
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
 public abstract class AbstractTestLifecycle implements TestLifecycle {
+    protected static final String TEST_CONTEXTS_PROPERTIES = "test-contexts.properties";
+
     protected final Logger log = Logger.getLogger(getClass().getName());
+    private volatile Configuration configuration;
     private Properties contexts;
 
     protected synchronized Properties getContexts() {
         if (contexts == null) {
-            contexts = new Properties();
-            try (InputStream resourceAsStream = getClass().getClassLoader().getResourceAsStream("test-contexts.properties")) {
-                contexts.load(resourceAsStream);
-            } catch (IOException e) {
-                throw new IllegalStateException(e);
-            }
+            contexts = getContextsConfiguration().toProperties();
         }
         return contexts;
     }
 
+    protected Configuration getContextsConfiguration() {
+        Configuration result = configuration;
+        if (result == null) {
+            result = Configuration.get(getClass().getClassLoader(), TEST_CONTEXTS_PROPERTIES);
+            configuration = result;
+        }
+        return result;
+    }
+
     protected String getContextValue(Class<?> caller, String context) {
-        String fqn = String.format("%s#%s", caller.getName(), context);
-        return getContexts().getProperty(fqn);
+        return getContextsConfiguration().getContextValue(caller, context);
     }
 
     protected String getContextValue(ContextualTestLifecycleEvent event) {
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.event;
+
+import java.util.Map;
+
+import com.google.appengine.tck.stats.ApiCallStats;
+
+/**
+ * Fired once a test class is done, with its API call stats.
+ */
+public interface ApiStatsLifecycleEvent extends TestLifecycleEvent {
+    /**
+     * Get API call stats.
+     *
+     * @return service.method to stats
+     */
+    Map<String, ApiCallStats> getStats();
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lifecycles loaded from one classloader, with per event type dispatch lists.
+ * <p/>
+ * Typed lifecycles are only dispatched events of their exact event type,
+ * untyped ones get every event. Dispatch lists are built on first event of a type.
+ */
+public final class TestLifecycleRegistry {
+    private final List<TestLifecycle> lifecycles;
+    private final ConcurrentMap<Class<?>, Dispatch> dispatches = new ConcurrentHashMap<>();
+
+    TestLifecycleRegistry(ClassLoader cl) {
+        List<TestLifecycle> list = new ArrayList<>();
+        for (TestLifecycle lifecycle : ServiceLoader.load(TestLifecycle.class, cl)) {
+            list.add(lifecycle);
+        }
+        this.lifecycles = Collections.unmodifiableList(list);
+    }
+
+    public List<TestLifecycle> getLifecycles() {
+        return lifecycles;
+    }
+
+    void before(TestLifecycleEvent event) {
+        Dispatch dispatch = getDispatch(event.getClass());
+        for (TestLifecycle lifecycle : dispatch.handlers) {
+            lifecycle.before(event);
+        }
+        dispatch.count.addAndGet(dispatch.handlers.length);
+    }
+
+    void after(TestLifecycleEvent event) {
+        Dispatch dispatch = getDispatch(event.getClass());
+        for (TestLifecycle lifecycle : dispatch.handlers) {
+            lifecycle.after(event);
+        }
+        dispatch.count.addAndGet(dispatch.handlers.length);
+    }
+
+    /**
+     * How many handler invocations happened per event type.
+     *
+     * @return event type name to handler invocation count
+     */
+    public Map<String, Long> getDispatchCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Dispatch dispatch : dispatches.values()) {
+            Long previous = counts.get(dispatch.label);
+            long count = dispatch.count.get();
+            counts.put(dispatch.label, (previous != null) ? previous + count : count);
+        }
+        return counts;
+    }
+
+    private Dispatch getDispatch(Class<?> eventClass) {
+        Dispatch dispatch = dispatches.get(eventClass);
+        if (dispatch == null) {
+            dispatch = new Dispatch(eventClass, lifecycles);
+            Dispatch previous = dispatches.putIfAbsent(eventClass, dispatch);
+            if (previous != null) {
+                dispatch = previous;
+            }
+        }
+        return dispatch;
+    }
+
+    private static String toLabel(Class<?> eventClass) {
+        for (Class<?> iface : eventClass.getInterfaces()) {
+            if (iface != TestLifecycleEvent.class && TestLifecycleEvent.class.isAssignableFrom(iface)) {
+                return iface.getSimpleName();
+            }
+        }
+        return eventClass.getSimpleName();
+    }
+
+    private static class Dispatch {
+        private final String label;
+        private final TestLifecycle[] handlers;
+        private final AtomicLong count = new AtomicLong();
+
+        private Dispatch(Class<?> eventClass, List<TestLifecycle> lifecycles) {
+            List<TestLifecycle> list = new ArrayList<>();
+            for (TestLifecycle lifecycle : lifecycles) {
+                if (lifecycle instanceof AbstractTypedTestLifecycle) {
+                    Class<?> exactType = ((AbstractTypedTestLifecycle<?>) lifecycle).getExactEventType();
+                    if (exactType.isAssignableFrom(eventClass)) {
+                        list.add(lifecycle);
+                    }
+                } else {
+                    list.add(lifecycle);
+                }
+            }
+            this.label = toLabel(eventClass);
+            this.handlers = list.toArray(new TestLifecycle[list.size()]);
+        }
+
+        @Override
+        public String toString() {
+            return label + Arrays.toString(handlers);
+        }
+    }
+}
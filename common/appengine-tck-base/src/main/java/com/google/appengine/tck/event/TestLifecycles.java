@@ -17,13 +17,13 @@ package com.google.appengine.tck.event;
 
 import java.net.URL;
 import java.util.Map;
-import java.util.ServiceLoader;
 import java.util.WeakHashMap;
 
 import com.google.appengine.api.images.Image;
 import com.google.appengine.api.images.Transform;
 import com.google.appengine.tck.base.TestBase;
 import com.google.appengine.tck.base.TestContext;
+import com.google.appengine.tck.stats.ApiCallStats;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
 
 /**
@@ -32,36 +32,58 @@ import org.jboss.shrinkwrap.api.spec.WebArchive;
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
 public class TestLifecycles {
-    private static Map<ClassLoader, ServiceLoader<TestLifecycle>> cache = new WeakHashMap<>();
+    private static final Map<ClassLoader, TestLifecycleRegistry> cache = new WeakHashMap<>();
+    private static volatile TestLifecycleRegistry defaultRegistry;
 
     protected static Iterable<TestLifecycle> getServicesLifecycles() {
-        return getServicesLifecycles(TestBase.class.getClassLoader());
+        return getRegistry().getLifecycles();
     }
 
     public static Iterable<TestLifecycle> getServicesLifecycles(ClassLoader cl) {
-        ServiceLoader<TestLifecycle> sl = cache.get(cl);
-        if (sl == null) {
-            sl = ServiceLoader.load(TestLifecycle.class, cl);
-            cache.put(cl, sl);
+        return getRegistry(cl).getLifecycles();
+    }
+
+    protected static TestLifecycleRegistry getRegistry() {
+        TestLifecycleRegistry registry = defaultRegistry;
+        if (registry == null) {
+            registry = getRegistry(TestBase.class.getClassLoader());
+            defaultRegistry = registry;
+        }
+        return registry;
+    }
+
+    public static TestLifecycleRegistry getRegistry(ClassLoader cl) {
+        synchronized (cache) {
+            TestLifecycleRegistry registry = cache.get(cl);
+            if (registry == null) {
+                registry = new TestLifecycleRegistry(cl);
+                cache.put(cl, registry);
+            }
+            return registry;
         }
-        return sl;
     }
 
     public static void reload(ClassLoader cl) {
-        ServiceLoader<TestLifecycle> sl = cache.get(cl);
-        if (sl != null) sl.reload();
+        synchronized (cache) {
+            if (cache.remove(cl) != null && cl == TestBase.class.getClassLoader()) {
+                defaultRegistry = null;
+            }
+        }
+    }
+
+    /**
+     * @return handler invocations per event type, for default classloader
+     */
+    public static Map<String, Long> getDispatchCounts() {
+        return getRegistry().getDispatchCounts();
     }
 
     public static void before(TestLifecycleEvent event) {
-        for (TestLifecycle sl : getServicesLifecycles()) {
-            sl.before(event);
-        }
+        getRegistry().before(event);
     }
 
     public static void after(TestLifecycleEvent event) {
-        for (TestLifecycle sl : getServicesLifecycles()) {
-            sl.after(event);
-        }
+        getRegistry().after(event);
     }
 
     public static TestLifecycleEvent createMergeLifecycleEvent(Class<?> caller, WebArchive deployment) {
@@ -92,6 +114,10 @@ public class TestLifecycles {
         return new InstanceLifecycleEventImpl<>(caller, instanceType);
     }
 
+    public static ApiStatsLifecycleEvent createApiStatsLifecycleEvent(Class<?> caller, Map<String, ApiCallStats> stats) {
+        return new ApiStatsLifecycleEventImpl(caller, stats);
+    }
+
     public static UrlLifecycleEvent createUrlLifecycleEvent(Class<?> caller, URL original) {
         return new UrlLifecycleEventImpl(caller, original);
     }
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.image;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Compares decoded images with a tolerance.
+ * <p/>
+ * Pixels are read straight from the rasters, in bands of rows; a band of rows is the unit of work.
+ * With parallelism set, large images are split across a fork-join pool, created per comparison;
+ * if threads cannot be started, e.g. on GAE, the comparison runs in the calling thread.
+ * Comparison stops at the first band with a pixel further than the max distance.
+ * <p/>
+ * e.g. ImageComparator.create().maxDistance(15).minPsnr(30).compare(expected, actual)
+ */
+public class ImageComparator {
+    /**
+     * Rows per band, also the SSIM block size.
+     */
+    static final int BAND = 8;
+
+    private static final double C1 = (0.01 * 255) * (0.01 * 255);
+    private static final double C2 = (0.03 * 255) * (0.03 * 255);
+
+    private double maxDistance;
+    private double minPsnr;
+    private double minSsim = Double.NaN;
+    private long parallelThreshold = 512 * 512;
+    private int parallelism = 1;
+
+    private ImageComparator() {
+    }
+
+    /**
+     * By default only identical pixels match.
+     */
+    public static ImageComparator create() {
+        return new ImageComparator();
+    }
+
+    /**
+     * Max euclidean ARGB distance of a single pixel, 0 - 510.
+     */
+    public ImageComparator maxDistance(double maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Negative distance: " + maxDistance);
+        }
+        this.maxDistance = maxDistance;
+        return this;
+    }
+
+    /**
+     * Min PSNR, in dB.
+     */
+    public ImageComparator minPsnr(double minPsnr) {
+        if (minPsnr < 0) {
+            throw new IllegalArgumentException("Negative PSNR: " + minPsnr);
+        }
+        this.minPsnr = minPsnr;
+        return this;
+    }
+
+    /**
+     * Compute SSIM, and require at least minSsim.
+     */
+    public ImageComparator minSsim(double minSsim) {
+        if (minSsim < -1.0 || minSsim > 1.0) {
+            throw new IllegalArgumentException("SSIM must be in [-1, 1]: " + minSsim);
+        }
+        this.minSsim = minSsim;
+        return this;
+    }
+
+    /**
+     * Images with at least this many pixels are compared in parallel.
+     */
+    public ImageComparator parallelThreshold(long pixels) {
+        this.parallelThreshold = pixels;
+        return this;
+    }
+
+    /**
+     * Threads for images over the parallel threshold; by default 1, comparing in the calling thread.
+     */
+    public ImageComparator parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public ImageDiff compare(byte[] expected, byte[] actual) {
+        return compare(decode(expected), decode(actual));
+    }
+
+    public ImageDiff compare(BufferedImage expected, BufferedImage actual) {
+        if (expected == null || actual == null) {
+            return ImageDiff.mismatch("Cannot decode image");
+        }
+        if (expected.getWidth() != actual.getWidth() || expected.getHeight() != actual.getHeight()) {
+            return ImageDiff.mismatch(String.format("Size %sx%s != %sx%s", expected.getWidth(), expected.getHeight(), actual.getWidth(), actual.getHeight()));
+        }
+
+        final int width = expected.getWidth();
+        final int height = expected.getHeight();
+        final Pixels e = Pixels.of(expected);
+        final Pixels a = Pixels.of(actual);
+
+        Comparison comparison = new Comparison(e, a, width);
+        Partial result = null;
+        if (parallelism > 1 && (long) width * height >= parallelThreshold) {
+            result = compareInParallel(comparison, height);
+            if (result == null) {
+                comparison = new Comparison(e, a, width);
+            }
+        }
+        if (result == null) {
+            result = new BandTask(comparison, 0, height, height).compute();
+        }
+        return toDiff(result, comparison.stopped.get());
+    }
+
+    /**
+     * @return the result, or null if threads cannot be started here
+     */
+    private Partial compareInParallel(Comparison comparison, int height) {
+        int rows = Math.max(BAND, (height / (parallelism * 4) + BAND - 1) / BAND * BAND);
+        ForkJoinPool pool = null;
+        try {
+            pool = new ForkJoinPool(parallelism);
+            return pool.invoke(new BandTask(comparison, 0, height, rows));
+        } catch (SecurityException | RejectedExecutionException e) {
+            return null;
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private ImageDiff toDiff(Partial result, boolean stopped) {
+        double mse = (result.pixels > 0) ? (double) result.sumSquares / (result.pixels * 4) : 0.0;
+        double psnr = (mse == 0.0) ? Double.POSITIVE_INFINITY : 10 * Math.log10(255 * 255 / mse);
+        double ssim = (result.blocks > 0) ? result.ssimSum / result.blocks : Double.NaN;
+        double distance = Math.sqrt(result.maxDistanceSquared);
+
+        String reason = null;
+        if (stopped) {
+            reason = String.format("Pixel distance %.2f > %.2f", distance, maxDistance);
+        } else if (psnr < minPsnr) {
+            reason = String.format("PSNR %.2f < %.2f", psnr, minPsnr);
+        } else if (ssim < minSsim) {
+            reason = String.format("SSIM %.4f < %.4f", ssim, minSsim);
+        }
+        return new ImageDiff(reason == null, reason, result.pixels, result.maxChannelDelta, distance, psnr, ssim);
+    }
+
+    private static BufferedImage decode(byte[] bytes) {
+        try {
+            return ImageIO.read(new ByteArrayInputStream(bytes));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private class Comparison {
+        private final Pixels expected;
+        private final Pixels actual;
+        private final int width;
+        private final AtomicBoolean stopped = new AtomicBoolean();
+
+        private Comparison(Pixels expected, Pixels actual, int width) {
+            this.expected = expected;
+            this.actual = actual;
+            this.width = width;
+        }
+
+        private Partial compare(int from, int to) {
+            final double maxDistanceSquared = maxDistance * maxDistance;
+            final boolean ssim = (Double.isNaN(minSsim) == false);
+            final int blocks = (width + BAND - 1) / BAND;
+
+            int[][] e = new int[BAND][width];
+            int[][] a = new int[BAND][width];
+            double[] sums = ssim ? new double[blocks * 5] : null;
+
+            Partial partial = new Partial();
+            for (int y = from; y < to && stopped.get() == false; y += BAND) {
+                int rows = Math.min(BAND, to - y);
+                for (int r = 0; r < rows; r++) {
+                    expected.read(y + r, e[r]);
+                    actual.read(y + r, a[r]);
+                }
+
+                for (int r = 0; r < rows; r++) {
+                    int[] er = e[r];
+                    int[] ar = a[r];
+                    for (int x = 0; x < width; x++) {
+                        int p = er[x];
+                        int q = ar[x];
+                        if (p == q) {
+                            continue;
+                        }
+                        int da = Math.abs((p >>> 24) - (q >>> 24));
+                        int dr = Math.abs((p >> 16 & 0xff) - (q >> 16 & 0xff));
+                        int dg = Math.abs((p >> 8 & 0xff) - (q >> 8 & 0xff));
+                        int db = Math.abs((p & 0xff) - (q & 0xff));
+                        long d2 = da * da + dr * dr + dg * dg + db * db;
+                        partial.sumSquares += d2;
+                        partial.maxDistanceSquared = Math.max(partial.maxDistanceSquared, d2);
+                        partial.maxChannelDelta = Math.max(partial.maxChannelDelta, Math.max(Math.max(da, dr), Math.max(dg, db)));
+                    }
+                }
+                partial.pixels += (long) rows * width;
+
+                if (partial.maxDistanceSquared > maxDistanceSquared) {
+                    stopped.set(true);
+                    break;
+                }
+                if (ssim) {
+                    ssim(e, a, rows, sums, partial);
+                }
+            }
+            return partial;
+        }
+
+        private void ssim(int[][] e, int[][] a, int rows, double[] sums, Partial partial) {
+            Arrays.fill(sums, 0.0);
+            for (int r = 0; r < rows; r++) {
+                for (int x = 0; x < width; x++) {
+                    double lx = luma(e[r][x]);
+                    double ly = luma(a[r][x]);
+                    int i = (x / BAND) * 5;
+                    sums[i] += lx;
+                    sums[i + 1] += ly;
+                    sums[i + 2] += lx * lx;
+                    sums[i + 3] += ly * ly;
+                    sums[i + 4] += lx * ly;
+                }
+            }
+            for (int b = 0, i = 0; i < sums.length; b++, i += 5) {
+                int n = rows * Math.min(BAND, width - b * BAND);
+                double mx = sums[i] / n;
+                double my = sums[i + 1] / n;
+                double vx = sums[i + 2] / n - mx * mx;
+                double vy = sums[i + 3] / n - my * my;
+                double cov = sums[i + 4] / n - mx * my;
+                partial.ssimSum += ((2 * mx * my + C1) * (2 * cov + C2)) / ((mx * mx + my * my + C1) * (vx + vy + C2));
+                partial.blocks++;
+            }
+        }
+    }
+
+    private static double luma(int argb) {
+        return 0.299 * (argb >> 16 & 0xff) + 0.587 * (argb >> 8 & 0xff) + 0.114 * (argb & 0xff);
+    }
+
+    private static class Partial {
+        private long pixels;
+        private long sumSquares;
+        private long maxDistanceSquared;
+        private int maxChannelDelta;
+        private double ssimSum;
+        private long blocks;
+
+        private Partial merge(Partial other) {
+            pixels += other.pixels;
+            sumSquares += other.sumSquares;
+            maxDistanceSquared = Math.max(maxDistanceSquared, other.maxDistanceSquared);
+            maxChannelDelta = Math.max(maxChannelDelta, other.maxChannelDelta);
+            ssimSum += other.ssimSum;
+            blocks += other.blocks;
+            return this;
+        }
+    }
+
+    private static class BandTask extends RecursiveTask<Partial> {
+        private final Comparison comparison;
+        private final int from;
+        private final int to;
+        private final int rows;
+
+        private BandTask(Comparison comparison, int from, int to, int rows) {
+            this.comparison = comparison;
+            this.from = from;
+            this.to = to;
+            this.rows = rows;
+        }
+
+        protected Partial compute() {
+            if (to - from <= rows) {
+                return comparison.compare(from, to);
+            }
+            // split on a band boundary, so SSIM blocks stay whole
+            int middle = from + ((to - from) / 2 + BAND - 1) / BAND * BAND;
+            BandTask second = new BandTask(comparison, middle, to, rows);
+            second.fork();
+            Partial first = new BandTask(comparison, from, middle, rows).compute();
+            return first.merge(second.join());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.image;
+
+/**
+ * Image comparison result.
+ * <p/>
+ * If the comparison stopped early, metrics only cover the rows compared so far.
+ */
+public class ImageDiff {
+    private final boolean match;
+    private final String reason;
+    private final long pixels;
+    private final int maxChannelDelta;
+    private final double maxDistance;
+    private final double psnr;
+    private final double ssim;
+
+    ImageDiff(boolean match, String reason, long pixels, int maxChannelDelta, double maxDistance, double psnr, double ssim) {
+        this.match = match;
+        this.reason = reason;
+        this.pixels = pixels;
+        this.maxChannelDelta = maxChannelDelta;
+        this.maxDistance = maxDistance;
+        this.psnr = psnr;
+        this.ssim = ssim;
+    }
+
+    static ImageDiff mismatch(String reason) {
+        return new ImageDiff(false, reason, 0, -1, Double.NaN, Double.NaN, Double.NaN);
+    }
+
+    public boolean isMatch() {
+        return match;
+    }
+
+    /**
+     * Why images don't match.
+     *
+     * @return the reason, or null if they match
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Compared pixels.
+     */
+    public long getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Largest difference of a single ARGB channel, 0 - 255.
+     */
+    public int getMaxChannelDelta() {
+        return maxChannelDelta;
+    }
+
+    /**
+     * Largest euclidean ARGB distance of a single pixel.
+     */
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Peak signal-to-noise ratio over ARGB channels, in dB; infinite for identical images.
+     */
+    public double getPsnr() {
+        return psnr;
+    }
+
+    /**
+     * Mean structural similarity of luma, over 8x8 blocks.
+     *
+     * @return the SSIM, or NaN if not computed
+     */
+    public double getSsim() {
+        return ssim;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImageDiff[match=%s, reason=%s, pixels=%s, maxChannelDelta=%s, maxDistance=%.2f, psnr=%.2f, ssim=%.4f]",
+            match, reason, pixels, maxChannelDelta, maxDistance, psnr, ssim);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+/**
+ * Reads image rows as non-premultiplied sRGB ARGB, same as BufferedImage.getRGB.
+ * <p/>
+ * Common layouts are read straight from the DataBuffer; anything else falls back to a bulk getRGB per row.
+ * Readers are stateless, so rows can be read concurrently.
+ */
+abstract class Pixels {
+    protected final int width;
+    protected final int height;
+
+    protected Pixels(BufferedImage image) {
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+    }
+
+    static Pixels of(BufferedImage image) {
+        Raster raster = image.getRaster();
+        SampleModel sm = raster.getSampleModel();
+        DataBuffer db = raster.getDataBuffer();
+        ColorModel cm = image.getColorModel();
+
+        if (db.getNumBanks() == 1) {
+            int type = image.getType();
+            if ((type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB) && sm instanceof SinglePixelPackedSampleModel && db instanceof DataBufferInt) {
+                return new IntPixels(image, (SinglePixelPackedSampleModel) sm, (DataBufferInt) db, type == BufferedImage.TYPE_INT_ARGB);
+            }
+            if (sm instanceof ComponentSampleModel && db instanceof DataBufferByte) {
+                ComponentSampleModel csm = (ComponentSampleModel) sm;
+                if (cm instanceof IndexColorModel && csm.getNumBands() == 1 && cm.getPixelSize() == 8) {
+                    return new IndexedPixels(image, csm, (DataBufferByte) db, (IndexColorModel) cm);
+                }
+                if (cm instanceof ComponentColorModel && cm.getColorSpace().isCS_sRGB() && cm.isAlphaPremultiplied() == false && (csm.getNumBands() == 3 || csm.getNumBands() == 4)) {
+                    return new RgbPixels(image, csm, (DataBufferByte) db);
+                }
+            }
+        }
+        return new GenericPixels(image);
+    }
+
+    /**
+     * Read a row.
+     *
+     * @param y    the row
+     * @param argb the row buffer, at least width long
+     */
+    abstract void read(int y, int[] argb);
+
+    /**
+     * Offset of the first row's first sample in the raster's bank.
+     */
+    protected static int firstOffset(BufferedImage image, int scanlineStride, int pixelStride) {
+        Raster raster = image.getRaster();
+        int x0 = raster.getMinX() - raster.getSampleModelTranslateX();
+        int y0 = raster.getMinY() - raster.getSampleModelTranslateY();
+        return raster.getDataBuffer().getOffset() + y0 * scanlineStride + x0 * pixelStride;
+    }
+
+    private static class IntPixels extends Pixels {
+        private final int[] data;
+        private final int first;
+        private final int scanlineStride;
+        private final boolean alpha;
+
+        private IntPixels(BufferedImage image, SinglePixelPackedSampleModel sm, DataBufferInt db, boolean alpha) {
+            super(image);
+            this.data = db.getData();
+            this.scanlineStride = sm.getScanlineStride();
+            this.first = firstOffset(image, scanlineStride, 1);
+            this.alpha = alpha;
+        }
+
+        void read(int y, int[] argb) {
+            int offset = first + y * scanlineStride;
+            if (alpha) {
+                System.arraycopy(data, offset, argb, 0, width);
+            } else {
+                for (int x = 0; x < width; x++) {
+                    argb[x] = 0xff000000 | data[offset + x];
+                }
+            }
+        }
+    }
+
+    private static class RgbPixels extends Pixels {
+        private final byte[] data;
+        private final int first;
+        private final int scanlineStride;
+        private final int pixelStride;
+        private final int[] bandOffsets;
+
+        private RgbPixels(BufferedImage image, ComponentSampleModel sm, DataBufferByte db) {
+            super(image);
+            this.data = db.getData();
+            this.scanlineStride = sm.getScanlineStride();
+            this.pixelStride = sm.getPixelStride();
+            this.first = firstOffset(image, scanlineStride, pixelStride);
+            this.bandOffsets = sm.getBandOffsets();
+        }
+
+        void read(int y, int[] argb) {
+            final int offset = first + y * scanlineStride;
+            final int r = bandOffsets[0];
+            final int g = bandOffsets[1];
+            final int b = bandOffsets[2];
+            if (bandOffsets.length == 4) {
+                final int a = bandOffsets[3];
+                for (int x = 0, i = offset; x < width; x++, i += pixelStride) {
+                    argb[x] = (data[i + a] & 0xff) << 24 | (data[i + r] & 0xff) << 16 | (data[i + g] & 0xff) << 8 | (data[i + b] & 0xff);
+                }
+            } else {
+                for (int x = 0, i = offset; x < width; x++, i += pixelStride) {
+                    argb[x] = 0xff000000 | (data[i + r] & 0xff) << 16 | (data[i + g] & 0xff) << 8 | (data[i + b] & 0xff);
+                }
+            }
+        }
+    }
+
+    private static class IndexedPixels extends Pixels {
+        private final byte[] data;
+        private final int first;
+        private final int scanlineStride;
+        private final int pixelStride;
+        private final int bandOffset;
+        private final int[] lut = new int[256];
+
+        private IndexedPixels(BufferedImage image, ComponentSampleModel sm, DataBufferByte db, IndexColorModel cm) {
+            super(image);
+            this.data = db.getData();
+            this.scanlineStride = sm.getScanlineStride();
+            this.pixelStride = sm.getPixelStride();
+            this.first = firstOffset(image, scanlineStride, pixelStride);
+            this.bandOffset = sm.getBandOffsets()[0];
+            cm.getRGBs(lut);
+        }
+
+        void read(int y, int[] argb) {
+            final int offset = first + y * scanlineStride + bandOffset;
+            for (int x = 0, i = offset; x < width; x++, i += pixelStride) {
+                argb[x] = lut[data[i] & 0xff];
+            }
+        }
+    }
+
+    private static class GenericPixels extends Pixels {
+        private final BufferedImage image;
+
+        private GenericPixels(BufferedImage image) {
+            super(image);
+            this.image = image;
+        }
+
+        void read(int y, int[] argb) {
+            image.getRGB(0, y, width, 1, argb, 0, width);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.lib;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import org.jboss.shrinkwrap.resolver.api.maven.Maven;
+import org.jboss.shrinkwrap.resolver.api.maven.PomEquippedResolveStage;
+
+/**
+ * Resolved artifacts cache.
+ * <p/>
+ * Resolved files are kept in memory for the JVM, and persisted to disk (by default target/tck-artifacts.properties),
+ * keyed by the pom's checksum -- including its parent poms and the system properties they refer to -- and coordinates.
+ * Any pom change gives new keys, hence re-resolving; stale entries are dropped on next write.
+ * Set -Dtck.artifact.cache=false to always resolve.
+ */
+public final class ArtifactCache {
+    private static final Logger log = Logger.getLogger(ArtifactCache.class.getName());
+
+    private static final boolean enabled = Boolean.parseBoolean(System.getProperty("tck.artifact.cache", "true"));
+    private static final File cacheFile = new File(System.getProperty("tck.artifact.cache.dir", "target"), "tck-artifacts.properties");
+
+    private static final Map<String, File[]> files = new ConcurrentHashMap<>();
+    private static final Map<String, PomEquippedResolveStage> resolvers = new ConcurrentHashMap<>();
+    private static final Map<String, String> checksums = new ConcurrentHashMap<>();
+    private static Properties persisted;
+
+    private ArtifactCache() {
+    }
+
+    /**
+     * Resolve coordinates against pom.
+     *
+     * @param pom         the pom path
+     * @param transitive  include transitive dependencies
+     * @param coordinates the coordinates
+     * @return resolved files
+     */
+    public static File[] resolve(String pom, boolean transitive, String... coordinates) {
+        if (enabled == false) {
+            return doResolve(pom, transitive, coordinates);
+        }
+
+        final String key = checksum(pom) + "|" + transitive + "|" + Arrays.toString(coordinates);
+        File[] result = files.get(key);
+        if (result == null) {
+            result = readPersisted(key);
+            if (result == null) {
+                result = doResolve(pom, transitive, coordinates);
+                writePersisted(key, result);
+            }
+            files.put(key, result);
+        }
+        return result;
+    }
+
+    // resolver is not meant to be shared across threads, e.g. parallel multisuite assembly
+    private static synchronized File[] doResolve(String pom, boolean transitive, String... coordinates) {
+        PomEquippedResolveStage resolver = resolvers.get(pom);
+        if (resolver == null) {
+            resolver = Maven.resolver().loadPomFromFile(pom);
+            resolvers.put(pom, resolver);
+        }
+        if (transitive) {
+            return resolver.resolve(coordinates).withTransitivity().as(File.class);
+        } else {
+            return resolver.resolve(coordinates).withoutTransitivity().as(File.class);
+        }
+    }
+
+    private static synchronized File[] readPersisted(String key) {
+        String value = getPersisted().getProperty(key);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+
+        List<File> list = new ArrayList<>();
+        for (String path : value.split(File.pathSeparator)) {
+            File file = new File(path);
+            if (file.exists() == false) {
+                return null; // e.g. cleaned local repository
+            }
+            list.add(file);
+        }
+        return list.toArray(new File[list.size()]);
+    }
+
+    private static synchronized void writePersisted(String key, File[] resolved) {
+        Properties properties = getPersisted();
+
+        // only keep entries for current poms
+        for (String existing : properties.stringPropertyNames()) {
+            String checksum = existing.substring(0, existing.indexOf('|'));
+            if (checksums.containsValue(checksum) == false) {
+                properties.remove(existing);
+            }
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (File file : resolved) {
+            if (builder.length() > 0) {
+                builder.append(File.pathSeparator);
+            }
+            builder.append(file.getAbsolutePath());
+        }
+        properties.setProperty(key, builder.toString());
+
+        File parent = cacheFile.getAbsoluteFile().getParentFile();
+        if (parent.exists() == false && parent.mkdirs() == false) {
+            log.warning("Cannot create artifact cache dir: " + parent);
+            return;
+        }
+        try {
+            File temp = File.createTempFile("tck-artifacts", ".tmp", parent);
+            try (OutputStream os = new FileOutputStream(temp)) {
+                properties.store(os, "GAE TCK resolved artifacts");
+            }
+            if (temp.renameTo(cacheFile) == false && (cacheFile.delete() == false || temp.renameTo(cacheFile) == false)) {
+                temp.delete();
+                log.warning("Cannot write artifact cache: " + cacheFile);
+            }
+        } catch (IOException e) {
+            log.warning("Cannot write artifact cache: " + e);
+        }
+    }
+
+    private static Properties getPersisted() {
+        if (persisted == null) {
+            persisted = new Properties();
+            if (cacheFile.exists()) {
+                try (InputStream is = new FileInputStream(cacheFile)) {
+                    persisted.load(is);
+                } catch (IOException e) {
+                    log.warning("Cannot read artifact cache: " + e);
+                    persisted.clear();
+                }
+            }
+        }
+        return persisted;
+    }
+
+    /**
+     * Checksum of pom and its parents; parents are expected in parent dirs, like in this project.
+     * System properties the poms refer to, e.g. version overrides or profile activation, are included.
+     */
+    private static String checksum(String pom) {
+        String checksum = checksums.get(pom);
+        if (checksum == null) {
+            try {
+                MessageDigest md = MessageDigest.getInstance("SHA-1");
+                StringBuilder content = new StringBuilder();
+                File file = new File(pom).getAbsoluteFile();
+                while (file != null && file.exists()) {
+                    byte[] bytes = Files.readAllBytes(file.toPath());
+                    md.update(bytes);
+                    content.append(new String(bytes, StandardCharsets.UTF_8));
+                    File parentDir = file.getParentFile().getParentFile();
+                    file = (parentDir != null) ? new File(parentDir, "pom.xml") : null;
+                }
+                for (String name : new TreeSet<>(System.getProperties().stringPropertyNames())) {
+                    if (content.indexOf("${" + name + "}") >= 0 || content.indexOf(">" + name + "<") >= 0) {
+                        md.update((name + "=" + System.getProperty(name) + "\n").getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                StringBuilder builder = new StringBuilder();
+                for (byte b : md.digest()) {
+                    builder.append(String.format("%02x", b));
+                }
+                checksum = builder.toString();
+            } catch (NoSuchAlgorithmException | IOException e) {
+                throw new IllegalStateException("Cannot checksum pom: " + pom, e);
+            }
+            checksums.put(pom, checksum);
+        }
+        return checksum;
+    }
+}
@@ -18,15 +18,11 @@ package com.google.appengine.tck.lib;
 import java.io.File;
 
 import org.jboss.shrinkwrap.api.container.LibraryContainer;
-import org.jboss.shrinkwrap.resolver.api.maven.Maven;
-import org.jboss.shrinkwrap.resolver.api.maven.PomEquippedResolveStage;
 
 /**
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
 public class LibUtils {
-    private PomEquippedResolveStage resolver;
-
     public void addGaeAsLibrary(LibraryContainer deployment) {
         addLibrary(deployment, "com.google.appengine:appengine-api-1.0-sdk");
     }
@@ -41,17 +37,15 @@ public class LibUtils {
 
     // ------------
 
-    protected PomEquippedResolveStage getResolver() {
-        if (resolver == null)
-            resolver = Maven.resolver().loadPomFromFile(buildPomPath());
-        return resolver;
-    }
-
     protected String buildPomPath() {
         return "pom.xml";
     }
 
     private File getDependency(final String coordinates) {
-        return getResolver().resolve(coordinates).withoutTransitivity().asSingle(File.class);
+        File[] files = ArtifactCache.resolve(buildPomPath(), false, coordinates);
+        if (files.length != 1) {
+            throw new IllegalStateException(String.format("Expected single artifact for %s, got %s", coordinates, files.length));
+        }
+        return files[0];
     }
 }
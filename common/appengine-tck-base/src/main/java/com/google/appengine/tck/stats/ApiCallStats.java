@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.stats;
+
+import java.io.Serializable;
+
+/**
+ * Stats of a single API call type, e.g. datastore_v3.Put.
+ * Latencies are in microseconds.
+ */
+public class ApiCallStats implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Histogram latency = new Histogram();
+    private long errors;
+    private long requestBytes;
+    private long responseBytes;
+
+    public synchronized void record(long micros, int requestSize, int responseSize, boolean error) {
+        latency.record(micros);
+        requestBytes += requestSize;
+        responseBytes += responseSize;
+        if (error) {
+            errors++;
+        }
+    }
+
+    public synchronized void merge(ApiCallStats other) {
+        synchronized (other) {
+            latency.merge(other.latency);
+            errors += other.errors;
+            requestBytes += other.requestBytes;
+            responseBytes += other.responseBytes;
+        }
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    public synchronized double getErrorRate() {
+        long calls = getCalls();
+        return (calls > 0) ? (double) errors / calls : 0.0;
+    }
+
+    public synchronized long getRequestBytes() {
+        return requestBytes;
+    }
+
+    public synchronized long getResponseBytes() {
+        return responseBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("calls=%s, errors=%s, p50=%sus, p90=%sus, p99=%sus, max=%sus, req=%sB, resp=%sB",
+            getCalls(), getErrors(), latency.getValueAtPercentile(50), latency.getValueAtPercentile(90),
+            latency.getValueAtPercentile(99), latency.getMax(), getRequestBytes(), getResponseBytes());
+    }
+}
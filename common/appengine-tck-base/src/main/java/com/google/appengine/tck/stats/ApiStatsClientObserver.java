@@ -0,0 +1,125 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.stats;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.appengine.tck.event.ApiStatsLifecycleEvent;
+import com.google.appengine.tck.event.TestLifecycles;
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.test.spi.event.suite.AfterClass;
+import org.jboss.arquillian.test.spi.event.suite.AfterSuite;
+
+/**
+ * Aggregates in-container API stats per test class, fires them as lifecycle event, and writes the report.
+ */
+public class ApiStatsClientObserver {
+    private static final Logger log = Logger.getLogger(ApiStatsClientObserver.class.getName());
+
+    private static final String ALL = "*";
+
+    private final Map<String, Map<String, ApiCallStats>> pending = new HashMap<>();
+    private final Map<String, Map<String, ApiCallStats>> done = new TreeMap<>();
+
+    public synchronized void remote(@Observes ApiStatsCommand command) {
+        Map<String, ApiCallStats> classStats = pending.get(command.getClassName());
+        if (classStats == null) {
+            classStats = new TreeMap<>();
+            pending.put(command.getClassName(), classStats);
+        }
+        merge(classStats, command.getStats());
+        command.setResult("OK");
+    }
+
+    public void afterClass(@Observes AfterClass event) {
+        final Class<?> testClass = event.getTestClass().getJavaClass();
+        final Map<String, ApiCallStats> classStats;
+        synchronized (this) {
+            classStats = pending.remove(testClass.getName());
+            if (classStats == null) {
+                return;
+            }
+            done.put(testClass.getName(), classStats);
+        }
+
+        ApiStatsLifecycleEvent lifecycleEvent = TestLifecycles.createApiStatsLifecycleEvent(testClass, classStats);
+        TestLifecycles.before(lifecycleEvent);
+        try {
+            log.fine(String.format("API stats for %s: %s", testClass.getName(), classStats));
+        } finally {
+            TestLifecycles.after(lifecycleEvent);
+        }
+    }
+
+    public synchronized void write(@Observes AfterSuite event) {
+        Map<String, ApiCallStats> total = new TreeMap<>();
+        for (Map<String, ApiCallStats> classStats : done.values()) {
+            merge(total, classStats);
+        }
+        File file = new File(System.getProperty("tck.api.stats.dir", "target"), "tck-api-stats.csv");
+        try {
+            write(file, total);
+        } catch (Exception e) {
+            log.log(Level.WARNING, "Cannot write API stats to " + file, e);
+        }
+        for (Map.Entry<String, ApiCallStats> entry : total.entrySet()) {
+            log.info(String.format("API %s: %s", entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private void write(File file, Map<String, ApiCallStats> total) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && dir.exists() == false && dir.mkdirs() == false) {
+            throw new IOException("Cannot create directory: " + dir);
+        }
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"))) {
+            writer.println("class,call,count,errors,error_rate,mean_us,p50_us,p90_us,p99_us,max_us,request_bytes,response_bytes");
+            for (Map.Entry<String, Map<String, ApiCallStats>> entry : done.entrySet()) {
+                write(writer, entry.getKey(), entry.getValue());
+            }
+            write(writer, ALL, total);
+        }
+    }
+
+    private static void write(PrintWriter writer, String className, Map<String, ApiCallStats> stats) {
+        for (Map.Entry<String, ApiCallStats> entry : stats.entrySet()) {
+            ApiCallStats s = entry.getValue();
+            Histogram h = s.getLatency();
+            writer.println(String.format("%s,%s,%s,%s,%.4f,%.0f,%s,%s,%s,%s,%s,%s", className, entry.getKey(), s.getCalls(), s.getErrors(), s.getErrorRate(),
+                h.getMean(), h.getValueAtPercentile(50), h.getValueAtPercentile(90), h.getValueAtPercentile(99), h.getMax(), s.getRequestBytes(), s.getResponseBytes()));
+        }
+    }
+
+    private static void merge(Map<String, ApiCallStats> target, Map<String, ApiCallStats> source) {
+        for (Map.Entry<String, ApiCallStats> entry : source.entrySet()) {
+            ApiCallStats existing = target.get(entry.getKey());
+            if (existing == null) {
+                existing = new ApiCallStats();
+                target.put(entry.getKey(), existing);
+            }
+            existing.merge(entry.getValue());
+        }
+    }
+}
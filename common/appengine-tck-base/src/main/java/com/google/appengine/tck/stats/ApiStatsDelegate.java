@@ -0,0 +1,250 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.stats;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.apphosting.api.ApiProxy;
+
+/**
+ * Records every API call, per test class and service.method.
+ * <p/>
+ * Async latency is measured until the caller first sees the result,
+ * so it is an upper bound if the caller picks the result up late.
+ */
+@SuppressWarnings("unchecked")
+public class ApiStatsDelegate implements ApiProxy.Delegate<ApiProxy.Environment> {
+    private static final String UNKNOWN = "<unknown>";
+
+    private static final ThreadLocal<String> currentClass = new ThreadLocal<>();
+    private static final ConcurrentMap<String, ConcurrentMap<String, ApiCallStats>> stats = new ConcurrentHashMap<>();
+
+    private static ApiStatsDelegate installed;
+
+    private final ApiProxy.Delegate<ApiProxy.Environment> delegate;
+
+    private ApiStatsDelegate(ApiProxy.Delegate<ApiProxy.Environment> delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Wrap current delegate, if not yet wrapped by this copy.
+     * <p/>
+     * ApiProxy can be shared by webapps, each with its own copy of this class;
+     * a wrapper left by another copy is replaced, so calls are recorded where this webapp drains them.
+     */
+    public static synchronized void install() {
+        ApiProxy.Delegate<ApiProxy.Environment> current = ApiProxy.getDelegate();
+        if (current == null || current == installed) {
+            return;
+        }
+        if (ApiStatsDelegate.class.getName().equals(current.getClass().getName())) {
+            current = unwrap(current);
+        }
+        installed = new ApiStatsDelegate(current);
+        ApiProxy.setDelegate(installed);
+    }
+
+    /**
+     * Restore the wrapped delegate, if ours is still installed; e.g. before the webapp goes away.
+     */
+    public static synchronized void uninstall() {
+        if (installed != null && ApiProxy.getDelegate() == installed) {
+            ApiProxy.setDelegate(installed.delegate);
+        }
+        installed = null;
+    }
+
+    private static ApiProxy.Delegate<ApiProxy.Environment> unwrap(ApiProxy.Delegate<ApiProxy.Environment> wrapper) {
+        try {
+            Field field = wrapper.getClass().getDeclaredField("delegate");
+            field.setAccessible(true);
+            return (ApiProxy.Delegate<ApiProxy.Environment>) field.get(wrapper);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot unwrap API stats delegate: " + wrapper, e);
+        }
+    }
+
+    public static void setCurrentClass(String className) {
+        if (className != null) {
+            currentClass.set(className);
+        } else {
+            currentClass.remove();
+        }
+    }
+
+    /**
+     * Take stats recorded so far for a test class.
+     * Calls from threads without a test class, e.g. servlets or tasks the test triggered, are added to it.
+     *
+     * @param className the test class name
+     * @return service.method to stats
+     */
+    public static Map<String, ApiCallStats> drain(String className) {
+        Map<String, ApiCallStats> drained = stats.remove(className);
+        Map<String, ApiCallStats> result = (drained != null) ? new HashMap<>(drained) : new HashMap<String, ApiCallStats>();
+        Map<String, ApiCallStats> unknown = stats.remove(UNKNOWN);
+        if (unknown != null) {
+            for (Map.Entry<String, ApiCallStats> entry : unknown.entrySet()) {
+                ApiCallStats existing = result.get(entry.getKey());
+                if (existing == null) {
+                    result.put(entry.getKey(), entry.getValue());
+                } else {
+                    existing.merge(entry.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static ApiCallStats getStats(String className, String packageName, String methodName) {
+        ConcurrentMap<String, ApiCallStats> classStats = stats.get(className);
+        if (classStats == null) {
+            classStats = new ConcurrentHashMap<>();
+            ConcurrentMap<String, ApiCallStats> previous = stats.putIfAbsent(className, classStats);
+            if (previous != null) {
+                classStats = previous;
+            }
+        }
+        String key = packageName + "." + methodName;
+        ApiCallStats callStats = classStats.get(key);
+        if (callStats == null) {
+            callStats = new ApiCallStats();
+            ApiCallStats previous = classStats.putIfAbsent(key, callStats);
+            if (previous != null) {
+                callStats = previous;
+            }
+        }
+        return callStats;
+    }
+
+    private static String getCurrentClass() {
+        String className = currentClass.get();
+        return (className != null) ? className : UNKNOWN;
+    }
+
+    public byte[] makeSyncCall(ApiProxy.Environment environment, String packageName, String methodName, byte[] request) throws ApiProxy.ApiProxyException {
+        final ApiCallStats callStats = getStats(getCurrentClass(), packageName, methodName);
+        final long start = System.nanoTime();
+        byte[] response = null;
+        boolean error = true;
+        try {
+            response = delegate.makeSyncCall(environment, packageName, methodName, request);
+            error = false;
+            return response;
+        } finally {
+            callStats.record(micros(start), size(request), size(response), error);
+        }
+    }
+
+    public Future<byte[]> makeAsyncCall(ApiProxy.Environment environment, String packageName, String methodName, byte[] request, ApiProxy.ApiConfig apiConfig) {
+        final ApiCallStats callStats = getStats(getCurrentClass(), packageName, methodName);
+        final long start = System.nanoTime();
+        try {
+            return new RecordingFuture(delegate.makeAsyncCall(environment, packageName, methodName, request, apiConfig), callStats, start, size(request));
+        } catch (RuntimeException e) {
+            callStats.record(micros(start), size(request), 0, true);
+            throw e;
+        }
+    }
+
+    public void log(ApiProxy.Environment environment, ApiProxy.LogRecord record) {
+        delegate.log(environment, record);
+    }
+
+    public void flushLogs(ApiProxy.Environment environment) {
+        delegate.flushLogs(environment);
+    }
+
+    public List<Thread> getRequestThreads(ApiProxy.Environment environment) {
+        return delegate.getRequestThreads(environment);
+    }
+
+    private static long micros(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+
+    private static int size(byte[] bytes) {
+        return (bytes != null) ? bytes.length : 0;
+    }
+
+    private static class RecordingFuture implements Future<byte[]> {
+        private final Future<byte[]> future;
+        private final ApiCallStats callStats;
+        private final long start;
+        private final int requestSize;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        private RecordingFuture(Future<byte[]> future, ApiCallStats callStats, long start, int requestSize) {
+            this.future = future;
+            this.callStats = callStats;
+            this.start = start;
+            this.requestSize = requestSize;
+        }
+
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return future.cancel(mayInterruptIfRunning);
+        }
+
+        public boolean isCancelled() {
+            return future.isCancelled();
+        }
+
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        public byte[] get() throws InterruptedException, ExecutionException {
+            try {
+                return record(future.get());
+            } catch (ExecutionException e) {
+                throw failed(e);
+            }
+        }
+
+        public byte[] get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            try {
+                return record(future.get(timeout, unit));
+            } catch (ExecutionException e) {
+                throw failed(e);
+            }
+        }
+
+        private byte[] record(byte[] response) {
+            if (recorded.compareAndSet(false, true)) {
+                callStats.record(micros(start), requestSize, size(response), false);
+            }
+            return response;
+        }
+
+        private ExecutionException failed(ExecutionException e) {
+            if (recorded.compareAndSet(false, true)) {
+                callStats.record(micros(start), requestSize, 0, true);
+            }
+            return e;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.stats;
+
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.core.spi.LoadableExtension;
+import org.kohsuke.MetaInfServices;
+
+/**
+ * Collect per test class API call stats.
+ * <p/>
+ * Enabled with -Dtck.api.stats=true; the env archive processors then install the recording delegate,
+ * and the report goes to -Dtck.api.stats.dir (default target).
+ */
+@MetaInfServices
+public class ApiStatsExtensionClient implements LoadableExtension {
+    public static final String ENABLED_PROPERTY = "tck.api.stats";
+
+    private final boolean enabled;
+
+    public ApiStatsExtensionClient() {
+        enabled = isEnabled();
+        if (enabled) {
+            Logger.getLogger(ApiStatsExtensionClient.class.getName()).info("API calls are recorded.");
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    public void register(ExtensionBuilder builder) {
+        if (enabled) {
+            builder.observer(ApiStatsClientObserver.class);
+        }
+    }
+}
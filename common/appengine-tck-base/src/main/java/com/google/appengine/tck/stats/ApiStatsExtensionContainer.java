@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.stats;
+
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.container.test.spi.RemoteLoadableExtension;
+import org.jboss.arquillian.container.test.spi.command.CommandService;
+import org.jboss.arquillian.core.api.Instance;
+import org.jboss.arquillian.core.api.annotation.Inject;
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.core.spi.EventContext;
+import org.jboss.arquillian.core.spi.ServiceLoader;
+import org.jboss.arquillian.test.spi.event.suite.After;
+import org.jboss.arquillian.test.spi.event.suite.Before;
+
+/**
+ * Installs the API stats delegate for each test method, and reports its stats after it.
+ * The delegate is removed again after each method, so an undeployed webapp leaves no wrapper behind.
+ */
+public class ApiStatsExtensionContainer implements RemoteLoadableExtension {
+    public void register(ExtensionBuilder builder) {
+        builder.observer(ApiStatsTestObserver.class);
+    }
+
+    public static class ApiStatsTestObserver {
+        private static final Logger log = Logger.getLogger(ApiStatsTestObserver.class.getName());
+
+        @Inject
+        private Instance<ServiceLoader> serviceLoader;
+
+        private volatile boolean unsupported;
+
+        public void before(@Observes(precedence = 100) EventContext<Before> context) {
+            ApiStatsDelegate.install();
+            ApiStatsDelegate.setCurrentClass(context.getEvent().getTestClass().getName());
+            context.proceed();
+        }
+
+        public void after(@Observes(precedence = 100) EventContext<After> context) {
+            final String className = context.getEvent().getTestClass().getName();
+            try {
+                context.proceed();
+            } finally {
+                ApiStatsDelegate.setCurrentClass(null);
+                ApiStatsDelegate.uninstall();
+                Map<String, ApiCallStats> stats = ApiStatsDelegate.drain(className);
+                if (stats.isEmpty() == false) {
+                    send(new ApiStatsCommand(className, stats));
+                }
+            }
+        }
+
+        private void send(ApiStatsCommand command) {
+            if (unsupported) {
+                return;
+            }
+            try {
+                serviceLoader.get().onlyOne(CommandService.class).execute(command);
+            } catch (Exception e) {
+                unsupported = true; // e.g. protocol without command support
+                log.warning("Cannot report API stats: " + e);
+            }
+        }
+    }
+}
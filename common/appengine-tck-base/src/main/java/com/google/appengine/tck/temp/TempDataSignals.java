@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.temp;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.tck.await.Signal;
+
+/**
+ * In-container TempData notifications, per kind.
+ * <p/>
+ * Only wakes up waiters in the same instance; they still read the data from datastore,
+ * so other instances simply fall back to polling.
+ */
+public final class TempDataSignals {
+    private static final ConcurrentMap<String, Signal> signals = new ConcurrentHashMap<>();
+
+    private TempDataSignals() {
+    }
+
+    public static Signal getSignal(String kind) {
+        Signal signal = signals.get(kind);
+        if (signal == null) {
+            signal = new Signal();
+            Signal previous = signals.putIfAbsent(kind, signal);
+            if (previous != null) {
+                signal = previous;
+            }
+        }
+        return signal;
+    }
+
+    public static void fire(Key key) {
+        getSignal(key.getKind()).fire();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.timing;
+
+import java.io.File;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.container.spi.event.DeployDeployment;
+import org.jboss.arquillian.container.spi.event.UnDeployDeployment;
+import org.jboss.arquillian.container.test.impl.client.deployment.event.GenerateDeployment;
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.core.spi.EventContext;
+import org.jboss.arquillian.test.spi.event.suite.AfterClass;
+import org.jboss.arquillian.test.spi.event.suite.AfterSuite;
+import org.jboss.arquillian.test.spi.event.suite.BeforeClass;
+import org.jboss.arquillian.test.spi.event.suite.Test;
+
+/**
+ * Times client side phases, collects in-container ones, and writes the report after the suite.
+ */
+public class TimingClientObserver {
+    private static final Logger log = Logger.getLogger(TimingClientObserver.class.getName());
+
+    private static final String SUITE = "suite";
+
+    private final TimingReport report = new TimingReport();
+    private String currentClass = SUITE;
+
+    public void beforeClass(@Observes EventContext<BeforeClass> context) {
+        currentClass = context.getEvent().getTestClass().getName();
+        timeClass(context, currentClass, "beforeClass");
+    }
+
+    public void afterClass(@Observes EventContext<AfterClass> context) {
+        try {
+            timeClass(context, context.getEvent().getTestClass().getName(), "afterClass");
+        } finally {
+            currentClass = SUITE;
+        }
+    }
+
+    public void generate(@Observes EventContext<GenerateDeployment> context) {
+        timeClass(context, context.getEvent().getTestClass().getName(), "generate");
+    }
+
+    public void deploy(@Observes EventContext<DeployDeployment> context) {
+        timeClass(context, currentClass, "deploy");
+    }
+
+    public void undeploy(@Observes EventContext<UnDeployDeployment> context) {
+        timeClass(context, currentClass, "undeploy");
+    }
+
+    public void test(@Observes EventContext<Test> context) {
+        final Test event = context.getEvent();
+        final long start = System.currentTimeMillis();
+        try {
+            context.proceed();
+        } finally {
+            report.add(event.getTestClass().getName(), event.getTestMethod().getName(), "roundtrip", System.currentTimeMillis() - start);
+        }
+    }
+
+    public void remote(@Observes TimingCommand command) {
+        report.add(command.getClassName(), command.getMethodName(), command.getPhases());
+        command.setResult("OK");
+    }
+
+    public void write(@Observes AfterSuite event) {
+        File dir = new File(System.getProperty("tck.timing.dir", "target"));
+        try {
+            report.writeJson(new File(dir, "tck-timings.json"));
+            report.writeCsv(new File(dir, "tck-timings.csv"));
+        } catch (Exception e) {
+            log.log(Level.WARNING, "Cannot write timing report to " + dir, e);
+        }
+        log.info(String.format("Timings: slowest %s, total sleep %sms, total await %sms, total deploy %sms.",
+            report.getSlowest(10), report.getTotal(Timings.SLEEP), report.getTotal(Timings.AWAIT), report.getTotal("deploy")));
+    }
+
+    private void timeClass(EventContext<?> context, String className, String phase) {
+        final long start = System.currentTimeMillis();
+        try {
+            context.proceed();
+        } finally {
+            report.addClassLevel(className, phase, System.currentTimeMillis() - start);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.timing;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import org.jboss.arquillian.container.test.spi.command.Command;
+
+/**
+ * Ships a test method's in-container phases back to the client.
+ */
+public class TimingCommand implements Command<String>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String className;
+    private final String methodName;
+    private final Map<String, Long> phases;
+
+    private String result;
+    private Throwable throwable;
+
+    public TimingCommand(String className, String methodName, Map<String, Long> phases) {
+        this.className = className;
+        this.methodName = methodName;
+        this.phases = phases;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public Map<String, Long> getPhases() {
+        return phases;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public Throwable getThrowable() {
+        return throwable;
+    }
+
+    public void setThrowable(Throwable throwable) {
+        this.throwable = throwable;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.timing;
+
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.container.test.spi.client.deployment.AuxiliaryArchiveAppender;
+import org.jboss.arquillian.core.spi.LoadableExtension;
+import org.kohsuke.MetaInfServices;
+
+/**
+ * Record per class and method phase timings.
+ * <p/>
+ * Enabled with -Dtck.timing=true, reports go to -Dtck.timing.dir (default target).
+ */
+@MetaInfServices
+public class TimingExtensionClient implements LoadableExtension {
+    private final boolean enabled;
+
+    public TimingExtensionClient() {
+        enabled = Boolean.getBoolean("tck.timing");
+        if (enabled) {
+            Logger.getLogger(TimingExtensionClient.class.getName()).info("Test phases are timed.");
+        }
+    }
+
+    public void register(ExtensionBuilder builder) {
+        if (enabled) {
+            builder.observer(TimingClientObserver.class);
+            builder.service(AuxiliaryArchiveAppender.class, TimingArchiveAppender.class);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.timing;
+
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.container.test.spi.RemoteLoadableExtension;
+import org.jboss.arquillian.container.test.spi.command.CommandService;
+import org.jboss.arquillian.core.api.Instance;
+import org.jboss.arquillian.core.api.annotation.Inject;
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.core.spi.EventContext;
+import org.jboss.arquillian.core.spi.ServiceLoader;
+import org.jboss.arquillian.test.spi.event.suite.After;
+import org.jboss.arquillian.test.spi.event.suite.Before;
+import org.jboss.arquillian.test.spi.event.suite.Test;
+
+/**
+ * Times setup (@Before), test body and teardown (@After) in the container.
+ */
+public class TimingExtensionContainer implements RemoteLoadableExtension {
+    public void register(ExtensionBuilder builder) {
+        builder.observer(TimingTestObserver.class);
+    }
+
+    public static class TimingTestObserver {
+        private static final Logger log = Logger.getLogger(TimingTestObserver.class.getName());
+
+        @Inject
+        private Instance<ServiceLoader> serviceLoader;
+
+        private volatile boolean unsupported;
+
+        public void before(@Observes EventContext<Before> context) {
+            Timings.begin();
+            time(context, "setup");
+        }
+
+        public void test(@Observes EventContext<Test> context) {
+            time(context, "test");
+        }
+
+        public void after(@Observes EventContext<After> context) {
+            try {
+                time(context, "teardown");
+            } finally {
+                Map<String, Long> phases = Timings.end();
+                if (phases != null) {
+                    After event = context.getEvent();
+                    send(new TimingCommand(event.getTestClass().getName(), event.getTestMethod().getName(), phases));
+                }
+            }
+        }
+
+        private static void time(EventContext<?> context, String phase) {
+            final long start = System.currentTimeMillis();
+            try {
+                context.proceed();
+            } finally {
+                Timings.record(phase, System.currentTimeMillis() - start);
+            }
+        }
+
+        private void send(TimingCommand command) {
+            if (unsupported) {
+                return;
+            }
+            try {
+                serviceLoader.get().onlyOne(CommandService.class).execute(command);
+            } catch (Exception e) {
+                unsupported = true; // e.g. protocol without command support
+                log.warning("Cannot report in-container timings: " + e);
+            }
+        }
+    }
+}
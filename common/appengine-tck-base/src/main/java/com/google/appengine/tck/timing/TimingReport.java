@@ -0,0 +1,182 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.timing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Phase timings per class and method; class level phases have an empty method name.
+ */
+public class TimingReport {
+    private static final String CLASS_LEVEL = "";
+
+    private final Map<String, Map<String, Map<String, Long>>> classes = new LinkedHashMap<>();
+
+    public synchronized void add(String className, String methodName, String phase, long millis) {
+        Timings.add(getPhases(className, methodName), phase, millis);
+    }
+
+    public synchronized void add(String className, String methodName, Map<String, Long> phases) {
+        Map<String, Long> existing = getPhases(className, methodName);
+        for (Map.Entry<String, Long> entry : phases.entrySet()) {
+            Timings.add(existing, entry.getKey(), entry.getValue());
+        }
+    }
+
+    public void addClassLevel(String className, String phase, long millis) {
+        add(className, CLASS_LEVEL, phase, millis);
+    }
+
+    private Map<String, Long> getPhases(String className, String methodName) {
+        Map<String, Map<String, Long>> methods = classes.get(className);
+        if (methods == null) {
+            methods = new LinkedHashMap<>();
+            classes.put(className, methods);
+        }
+        Map<String, Long> phases = methods.get(methodName);
+        if (phases == null) {
+            phases = new LinkedHashMap<>();
+            methods.put(methodName, phases);
+        }
+        return phases;
+    }
+
+    /**
+     * Total time of a phase, over all classes and methods.
+     */
+    public synchronized long getTotal(String phase) {
+        long total = 0;
+        for (Map<String, Map<String, Long>> methods : classes.values()) {
+            for (Map<String, Long> phases : methods.values()) {
+                Long millis = phases.get(phase);
+                if (millis != null) {
+                    total += millis;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Slowest test methods, by client round trip (or in-container test time, if no round trip was recorded).
+     */
+    public synchronized List<String> getSlowest(int max) {
+        final Map<String, Long> durations = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Map<String, Long>>> ce : classes.entrySet()) {
+            for (Map.Entry<String, Map<String, Long>> me : ce.getValue().entrySet()) {
+                if (CLASS_LEVEL.equals(me.getKey()) == false) {
+                    Long millis = me.getValue().get("roundtrip");
+                    if (millis == null) {
+                        millis = me.getValue().get("test");
+                    }
+                    durations.put(ce.getKey() + "#" + me.getKey(), (millis != null) ? millis : 0L);
+                }
+            }
+        }
+        List<String> tests = new ArrayList<>(durations.keySet());
+        Collections.sort(tests, new Comparator<String>() {
+            public int compare(String t1, String t2) {
+                return durations.get(t2).compareTo(durations.get(t1));
+            }
+        });
+        List<String> slowest = new ArrayList<>();
+        for (String test : tests.subList(0, Math.min(max, tests.size()))) {
+            slowest.add(test + "=" + durations.get(test) + "ms");
+        }
+        return slowest;
+    }
+
+    public synchronized void writeCsv(File file) throws IOException {
+        try (PrintWriter writer = newWriter(file)) {
+            writer.println("class,method,phase,millis");
+            for (Map.Entry<String, Map<String, Map<String, Long>>> ce : classes.entrySet()) {
+                for (Map.Entry<String, Map<String, Long>> me : ce.getValue().entrySet()) {
+                    for (Map.Entry<String, Long> pe : me.getValue().entrySet()) {
+                        writer.println(ce.getKey() + "," + me.getKey() + "," + pe.getKey() + "," + pe.getValue());
+                    }
+                }
+            }
+        }
+    }
+
+    public synchronized void writeJson(File file) throws IOException {
+        try (PrintWriter writer = newWriter(file)) {
+            writer.println("[");
+            Iterator<Map.Entry<String, Map<String, Map<String, Long>>>> classIterator = classes.entrySet().iterator();
+            while (classIterator.hasNext()) {
+                Map.Entry<String, Map<String, Map<String, Long>>> ce = classIterator.next();
+                writer.print("  {\"class\": " + quote(ce.getKey()) + ", \"phases\": ");
+                Map<String, Long> classPhases = ce.getValue().get(CLASS_LEVEL);
+                writePhases(writer, (classPhases != null) ? classPhases : Collections.<String, Long>emptyMap());
+                writer.println(", \"methods\": [");
+                Iterator<Map.Entry<String, Map<String, Long>>> methodIterator = ce.getValue().entrySet().iterator();
+                boolean first = true;
+                while (methodIterator.hasNext()) {
+                    Map.Entry<String, Map<String, Long>> me = methodIterator.next();
+                    if (CLASS_LEVEL.equals(me.getKey())) {
+                        continue;
+                    }
+                    if (first == false) {
+                        writer.println(",");
+                    }
+                    first = false;
+                    writer.print("    {\"method\": " + quote(me.getKey()) + ", \"phases\": ");
+                    writePhases(writer, me.getValue());
+                    writer.print("}");
+                }
+                writer.println();
+                writer.println(classIterator.hasNext() ? "  ]}," : "  ]}");
+            }
+            writer.println("]");
+        }
+    }
+
+    private static void writePhases(PrintWriter writer, Map<String, Long> phases) {
+        writer.print("{");
+        Iterator<Map.Entry<String, Long>> iterator = phases.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            writer.print(quote(entry.getKey()) + ": " + entry.getValue());
+            if (iterator.hasNext()) {
+                writer.print(", ");
+            }
+        }
+        writer.print("}");
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static PrintWriter newWriter(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && dir.exists() == false && dir.mkdirs() == false) {
+            throw new IOException("Cannot create directory: " + dir);
+        }
+        return new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.timing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-container phase recorder for the current test method.
+ * <p/>
+ * Recording is a no-op unless timing instrumentation is active for the current thread.
+ */
+public final class Timings {
+    public static final String SLEEP = "sleep";
+    public static final String AWAIT = "await";
+
+    private static final ThreadLocal<Map<String, Long>> current = new ThreadLocal<>();
+
+    private Timings() {
+    }
+
+    static void begin() {
+        current.set(new LinkedHashMap<String, Long>());
+    }
+
+    static Map<String, Long> end() {
+        Map<String, Long> phases = current.get();
+        current.remove();
+        return phases;
+    }
+
+    /**
+     * Add time spent in a phase.
+     *
+     * @param phase  the phase
+     * @param millis the time spent
+     */
+    public static void record(String phase, long millis) {
+        Map<String, Long> phases = current.get();
+        if (phases != null) {
+            add(phases, phase, millis);
+        }
+    }
+
+    static void add(Map<String, Long> phases, String phase, long millis) {
+        Long previous = phases.get(phase);
+        phases.put(phase, (previous != null) ? previous + millis : millis);
+    }
+}
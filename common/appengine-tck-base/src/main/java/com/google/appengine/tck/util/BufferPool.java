@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.util;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of I/O buffers, so copies don't allocate a fresh buffer each time.
+ * <p/>
+ * Direct buffers are for channel copies, heap buffers for stream copies (their array is used).
+ * Always release an acquired buffer in finally.
+ */
+public final class BufferPool {
+    public static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED = 16;
+
+    private static final Pool DIRECT = new Pool(true);
+    private static final Pool HEAP = new Pool(false);
+
+    private BufferPool() {
+    }
+
+    public static ByteBuffer acquireDirect() {
+        return DIRECT.acquire();
+    }
+
+    public static ByteBuffer acquireHeap() {
+        return HEAP.acquire();
+    }
+
+    public static void release(ByteBuffer buffer) {
+        if (buffer != null && buffer.capacity() == BUFFER_SIZE) {
+            (buffer.isDirect() ? DIRECT : HEAP).release(buffer);
+        }
+    }
+
+    private static class Pool {
+        private final boolean direct;
+        private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        private Pool(boolean direct) {
+            this.direct = direct;
+        }
+
+        private ByteBuffer acquire() {
+            ByteBuffer buffer = buffers.poll();
+            if (buffer != null) {
+                size.decrementAndGet();
+                return buffer;
+            }
+            return direct ? ByteBuffer.allocateDirect(BUFFER_SIZE) : ByteBuffer.allocate(BUFFER_SIZE);
+        }
+
+        private void release(ByteBuffer buffer) {
+            if (size.incrementAndGet() <= MAX_POOLED) {
+                buffer.clear();
+                buffers.offer(buffer);
+            } else {
+                size.decrementAndGet();
+            }
+        }
+    }
+}
@@ -31,7 +31,6 @@ import org.apache.http.client.HttpClient;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 
@@ -46,21 +45,27 @@ public class GaeAuthClient {
     private HttpClient client;
 
     public GaeAuthClient(String servletUrl, String username, String password) throws AuthClientException {
-        client = new DefaultHttpClient();
+        client = HttpClientFactory.newClient();
         authInit(servletUrl, username, password);
     }
 
     public HttpClient getClient() {
+        if (client == null) {
+            throw new IllegalStateException("Client was shut down, its auth cookies are gone.");
+        }
         return client;
     }
 
+    /**
+     * Connections are shared, see {@link HttpClientFactory}; only the client and its cookies are dropped.
+     */
     public void shutdown() {
-        client.getConnectionManager().shutdown();
+        client = null;
     }
 
     public HttpResponse getUrl(String url) throws IOException {
         HttpGet get = new HttpGet(url);
-        return client.execute(get);
+        return getClient().execute(get);
     }
 
     protected void authInit(String servletUrl, String username, String password) throws AuthClientException {
@@ -90,7 +95,8 @@ public class GaeAuthClient {
     }
 
     protected void getAuthCookie(HttpClient client, String cookieUrl) throws IOException {
-        client.execute(new HttpGet(cookieUrl));
+        HttpResponse response = client.execute(new HttpGet(cookieUrl));
+        EntityUtils.consume(response.getEntity());
     }
 
     protected HttpPost getClientLoginRequest(String username, String password) throws UnsupportedEncodingException {
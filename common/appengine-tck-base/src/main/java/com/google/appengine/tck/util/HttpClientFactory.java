@@ -0,0 +1,189 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.appengine.tck.base.TestBase;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.params.HttpProtocolParams;
+
+/**
+ * Client side HTTP clients, over one pooled keep-alive connection manager.
+ * <p/>
+ * Clients are cheap, each has its own cookies; connections are shared and reused across tests.
+ * Don't shut down a client's connection manager, and consume every response entity,
+ * so its connection goes back to the pool.
+ * <p/>
+ * Pool and timeouts are configured with system properties, or tck.properties:
+ * tck.http.max.total (default 50), tck.http.max.per.route (default 20),
+ * tck.http.connect.timeout (default 30000ms), tck.http.socket.timeout (default 0, no timeout)
+ * and tck.http.lease.timeout (default 60000ms), after which waiting for a pooled connection fails,
+ * e.g. when responses are not consumed.
+ * <p/>
+ * Connections opened vs. reused are counted; client side, they are written after the suite
+ * to target/tck-http-client.txt (or tck.http.stats.dir), see {@link HttpClientStatsObserver}.
+ */
+public final class HttpClientFactory {
+    private static final AtomicLong opened = new AtomicLong();
+    private static final AtomicLong reused = new AtomicLong();
+
+    private static ClientConnectionManager manager;
+    private static boolean hook;
+
+    private HttpClientFactory() {
+    }
+
+    /**
+     * New client over the shared connection pool.
+     *
+     * @return new client
+     */
+    public static HttpClient newClient() {
+        return new DefaultHttpClient(getConnectionManager(), createParams());
+    }
+
+    public static synchronized ClientConnectionManager getConnectionManager() {
+        if (manager == null) {
+            manager = createConnectionManager(SchemeRegistryFactory.createDefault());
+            if (hook == false) {
+                Runtime.getRuntime().addShutdownHook(new Thread("tck-http-client-shutdown") {
+                    public void run() {
+                        shutdown();
+                    }
+                });
+                hook = true;
+            }
+        }
+        return manager;
+    }
+
+    /**
+     * New pooled and counted connection manager, for clients with special schemes, e.g. trust-all SSL.
+     *
+     * @param schemeRegistry the scheme registry
+     * @return new connection manager
+     */
+    public static ClientConnectionManager createConnectionManager(SchemeRegistry schemeRegistry) {
+        PoolingClientConnectionManager ccm = new CountingConnectionManager(schemeRegistry);
+        ccm.setMaxTotal(getInt("tck.http.max.total", 50));
+        ccm.setDefaultMaxPerRoute(getInt("tck.http.max.per.route", 20));
+        return ccm;
+    }
+
+    public static HttpParams createParams() {
+        HttpParams params = new BasicHttpParams();
+        HttpConnectionParams.setConnectionTimeout(params, getInt("tck.http.connect.timeout", 30 * 1000));
+        HttpConnectionParams.setSoTimeout(params, getInt("tck.http.socket.timeout", 0));
+        params.setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, getInt("tck.http.lease.timeout", 60 * 1000));
+        HttpConnectionParams.setStaleCheckingEnabled(params, true);
+        HttpProtocolParams.setVersion(params, HttpVersion.HTTP_1_1);
+        return params;
+    }
+
+    private static int getInt(String key, int defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            try {
+                value = TestBase.getTestSystemProperty(key);
+            } catch (IllegalArgumentException ignored) {
+                // no tck.properties, e.g. plain client side
+            }
+        }
+        return (value != null) ? Integer.parseInt(value) : defaultValue;
+    }
+
+    public static long getOpened() {
+        return opened.get();
+    }
+
+    public static long getReused() {
+        return reused.get();
+    }
+
+    public static String getStats() {
+        return String.format("HTTP connections: opened=%s, reused=%s", getOpened(), getReused());
+    }
+
+    /**
+     * Write the connection stats.
+     *
+     * @param file the stats file
+     * @throws IOException for any IO error
+     */
+    public static void writeStats(File file) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && dir.isDirectory() == false && dir.mkdirs() == false) {
+            throw new IOException("Cannot create directory: " + dir);
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write((getStats() + "\n").getBytes(IOUtils.ISO_8859_1));
+        }
+    }
+
+    /**
+     * Close the shared pool; a new one is created on next use.
+     */
+    public static synchronized void shutdown() {
+        if (manager != null) {
+            ClientConnectionManager tmp = manager;
+            manager = null;
+            tmp.shutdown();
+        }
+    }
+
+    private static class CountingConnectionManager extends PoolingClientConnectionManager {
+        private CountingConnectionManager(SchemeRegistry schemeRegistry) {
+            super(schemeRegistry);
+        }
+
+        @Override
+        public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+            final ClientConnectionRequest request = super.requestConnection(route, state);
+            return new ClientConnectionRequest() {
+                public ManagedClientConnection getConnection(long timeout, TimeUnit tunit) throws InterruptedException, ConnectionPoolTimeoutException {
+                    ManagedClientConnection connection = request.getConnection(timeout, tunit);
+                    // pooled connections are leased open, new ones are opened by the client
+                    (connection.isOpen() ? reused : opened).incrementAndGet();
+                    return connection;
+                }
+
+                public void abortRequest() {
+                    request.abortRequest();
+                }
+            };
+        }
+    }
+}
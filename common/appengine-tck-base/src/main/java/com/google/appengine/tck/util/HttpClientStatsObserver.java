@@ -0,0 +1,41 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jboss.arquillian.core.api.annotation.Observes;
+import org.jboss.arquillian.test.spi.event.suite.AfterSuite;
+
+/**
+ * Reports client side HTTP connection stats after the suite, while logging still works.
+ */
+public class HttpClientStatsObserver {
+    private static final Logger log = Logger.getLogger(HttpClientStatsObserver.class.getName());
+
+    public void write(@Observes AfterSuite event) {
+        File file = new File(System.getProperty("tck.http.stats.dir", "target"), "tck-http-client.txt");
+        try {
+            HttpClientFactory.writeStats(file);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Cannot write HTTP client stats to " + file, e);
+        }
+        log.info(HttpClientFactory.getStats());
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Stream and channel helpers.
+ * <p/>
+ * Copies use pooled buffers, see {@link BufferPool}, and file channel transfers when both ends allow it.
+ *
+ * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
+ * @author <a href="mailto:mluksa@redhat.com">Marko Luksa</a>
+ */
+public final class IOUtils {
+    /**
+     * One char per byte, as most HTTP test responses are read.
+     */
+    public static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    private IOUtils() {
+    }
+
+    /**
+     * Safe close.
+     *
+     * @param closeable the closeable resource
+     */
+    public static void safeClose(Closeable closeable) {
+        if (closeable != null)
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+    }
+
+    /**
+     * Copy stream.
+     *
+     * @param in  the input stream
+     * @param out the output stream
+     * @return copied bytes
+     * @throws IOException for any IO error
+     */
+    public static long copyStream(InputStream in, OutputStream out) throws IOException {
+        if (in instanceof FileInputStream && out instanceof FileOutputStream) {
+            return copy(((FileInputStream) in).getChannel(), ((FileOutputStream) out).getChannel());
+        }
+        return copyBounded(in, out, Long.MAX_VALUE, false);
+    }
+
+    /**
+     * Copy stream.
+     *
+     * @param in     the input stream
+     * @param out    the output stream
+     * @param offset how many input bytes should be skipped
+     * @throws IOException for any IO error
+     */
+    public static void copyStream(InputStream in, OutputStream out, long offset) throws IOException {
+        skipFully(in, offset);
+        copyStream(in, out);
+    }
+
+    /**
+     * Copy stream.
+     *
+     * @param in     the input stream
+     * @param out    the output stream
+     * @param offset how many input bytes should be skipped
+     * @param length how many bytes should be copied
+     * @throws EOFException if there is less than length bytes
+     * @throws IOException  for any other IO error
+     */
+    public static void copyStream(InputStream in, OutputStream out, long offset, long length) throws IOException {
+        skipFully(in, offset);
+        copyStreamBounded(in, out, length);
+    }
+
+    /**
+     * Copy exactly length bytes.
+     *
+     * @param in     the input stream
+     * @param out    the output stream
+     * @param length how many bytes should be copied
+     * @throws EOFException if there is less than length bytes
+     * @throws IOException  for any other IO error
+     */
+    public static void copyStreamBounded(InputStream in, OutputStream out, long length) throws IOException {
+        copyBounded(in, out, length, true);
+    }
+
+    private static long copyBounded(InputStream in, OutputStream out, long length, boolean exact) throws IOException {
+        ByteBuffer buffer = BufferPool.acquireHeap();
+        try {
+            final byte[] bytes = buffer.array();
+            long total = 0;
+            while (total < length) {
+                int count = in.read(bytes, 0, (int) Math.min(bytes.length, length - total));
+                if (count == -1) {
+                    if (exact) {
+                        throw new EOFException("Reached end of stream prematurely.");
+                    }
+                    break;
+                }
+                out.write(bytes, 0, count);
+                total += count;
+            }
+            return total;
+        } finally {
+            BufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Copy channel, till the end of input.
+     * File channels transfer directly, other channels go through a pooled direct buffer.
+     * Non-blocking channels are not supported, as we have no selector to wait on.
+     *
+     * @param in  the input channel
+     * @param out the output channel
+     * @return copied bytes
+     * @throws IllegalArgumentException if either channel is non-blocking
+     * @throws IOException for any IO error
+     */
+    public static long copy(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        checkBlocking(in);
+        checkBlocking(out);
+        if (in instanceof FileChannel) {
+            FileChannel fc = (FileChannel) in;
+            long position = fc.position();
+            long size = fc.size();
+            long total = 0;
+            while (position + total < size) {
+                long count = fc.transferTo(position + total, size - position - total, out);
+                if (count == 0) {
+                    // e.g. the file shrank meanwhile, finish with plain reads till the actual end
+                    fc.position(position + total);
+                    return total + copyBuffered(fc, out);
+                }
+                total += count;
+            }
+            fc.position(position + total);
+            return total;
+        }
+        if (out instanceof FileChannel) {
+            FileChannel fc = (FileChannel) out;
+            long position = fc.position();
+            long total = 0;
+            long count;
+            while ((count = fc.transferFrom(in, position + total, BufferPool.BUFFER_SIZE)) > 0) {
+                total += count;
+            }
+            fc.position(position + total);
+            // transferFrom cannot tell a slow channel from an exhausted one, finish with plain reads
+            return total + copyBuffered(in, out);
+        }
+        return copyBuffered(in, out);
+    }
+
+    private static void checkBlocking(Object channel) {
+        if (channel instanceof SelectableChannel && ((SelectableChannel) channel).isBlocking() == false) {
+            throw new IllegalArgumentException("Non-blocking channels are not supported: " + channel);
+        }
+    }
+
+    private static long copyBuffered(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        ByteBuffer buffer = BufferPool.acquireDirect();
+        try {
+            long total = 0;
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                total += count;
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+            return total;
+        } finally {
+            BufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Write the whole buffer.
+     *
+     * @param out    the output channel
+     * @param buffer the buffer
+     * @throws IOException for any IO error
+     */
+    public static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Skips over and discards exactly count bytes from the stream. If stream contains less than count bytes, this method
+     * throws an EOFException.
+     *
+     * @param stream the input stream
+     * @param count  number of bytes to skip
+     * @throws EOFException when the stream does not contain enough bytes
+     * @throws IOException  when any other IO error occurs
+     */
+    public static void skipFully(InputStream stream, long count) throws IOException {
+        while (count > 0) {
+            long skipped = stream.skip(count);
+            if (skipped < count) {
+                if (stream.read() == -1) {
+                    throw new EOFException("Reached end of stream prematurely.");
+                }
+                skipped++;
+            }
+            count -= skipped;
+        }
+    }
+
+    /**
+     * Read exactly bytes.length bytes.
+     *
+     * @param in    the input stream
+     * @param bytes the bytes to fill
+     * @throws EOFException if there is not enough bytes
+     * @throws IOException  for any other IO error
+     */
+    public static void readFully(InputStream in, byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            int count = in.read(bytes, offset, bytes.length - offset);
+            if (count == -1) {
+                throw new EOFException("Reached end of stream prematurely.");
+            }
+            offset += count;
+        }
+    }
+
+    /**
+     * Get bytes from input stream.
+     *
+     * @param is          the input stream
+     * @param closeStream should we close the stream
+     * @return bytes
+     * @throws IOException for any IO error
+     */
+    public static byte[] toBytes(InputStream is, boolean closeStream) throws IOException {
+        return toBytes(is, 0, Long.MAX_VALUE, closeStream);
+    }
+
+    /**
+     * Get bytes from input stream, when the length is known upfront, e.g. Content-Length.
+     * Reads straight into the result, no intermediate copies.
+     *
+     * @param is          the input stream
+     * @param length      the exact length
+     * @param closeStream should we close the stream
+     * @return bytes
+     * @throws EOFException if there is less than length bytes
+     * @throws IOException  for any other IO error
+     */
+    public static byte[] toBytes(InputStream is, int length, boolean closeStream) throws IOException {
+        try {
+            byte[] bytes = new byte[length];
+            readFully(is, bytes);
+            return bytes;
+        } finally {
+            if (closeStream)
+                safeClose(is);
+        }
+    }
+
+    /**
+     * Get bytes from input stream; the range is cut short at the end of stream.
+     *
+     * @param is          the input stream
+     * @param start       the start
+     * @param end         the end (inclusive)
+     * @param closeStream should we close the stream
+     * @return bytes
+     * @throws IOException for any IO error
+     */
+    public static byte[] toBytes(InputStream is, long start, long end, boolean closeStream) throws IOException {
+        try {
+            skipFully(is, start);
+            long length = (end == Long.MAX_VALUE) ? Long.MAX_VALUE : end - start + 1;
+            ByteArrayOutputStream baos = new ByteArrayOutputStream((int) Math.min(length, BufferPool.BUFFER_SIZE));
+            copyBounded(is, baos, length, false);
+            return baos.toByteArray();
+        } finally {
+            if (closeStream)
+                safeClose(is);
+        }
+    }
+
+    /**
+     * Read the whole stream as ISO-8859-1, one char per byte.
+     *
+     * @param is          the input stream
+     * @param closeStream should we close the stream
+     * @return the content
+     * @throws IOException for any IO error
+     */
+    public static String toString(InputStream is, boolean closeStream) throws IOException {
+        return new String(toBytes(is, closeStream), ISO_8859_1);
+    }
+
+    /**
+     * Read the whole reader.
+     *
+     * @param reader the reader
+     * @return the content
+     * @throws IOException for any IO error
+     */
+    public static String toString(Reader reader) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        char[] chars = new char[4096];
+        int count;
+        while ((count = reader.read(chars)) != -1) {
+            builder.append(chars, 0, count);
+        }
+        return builder.toString();
+    }
+}
@@ -28,11 +28,7 @@ public final class Utils {
     private static final Logger log = Logger.getLogger(Utils.class.getName());
 
     public static void copyStream(final InputStream in, final OutputStream out) throws IOException {
-        final byte[] bytes = new byte[8192];
-        int cnt;
-        while ((cnt = in.read(bytes)) != -1) {
-            out.write(bytes, 0, cnt);
-        }
+        IOUtils.copyStream(in, out);
     }
 
     public static void safeClose(Closeable closeable) {
@@ -44,15 +40,6 @@ public final class Utils {
     }
 
     public static String readFullyAndClose(InputStream in) throws IOException {
-        try {
-            StringBuilder sbuf = new StringBuilder();
-            int ch;
-            while ((ch = in.read()) != -1) {
-                sbuf.append((char) ch);
-            }
-            return sbuf.toString().trim();
-        } finally {
-            in.close();
-        }
+        return IOUtils.toString(in, true).trim();
     }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.deployment;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.jboss.arquillian.container.spi.Container;
+import org.jboss.arquillian.container.spi.client.container.DeployableContainer;
+import org.jboss.arquillian.container.spi.client.deployment.Deployment;
+import org.jboss.arquillian.container.spi.client.deployment.DeploymentDescription;
+import org.jboss.arquillian.container.spi.client.protocol.metadata.ProtocolMetaData;
+import org.jboss.arquillian.container.spi.event.DeployDeployment;
+import org.jboss.arquillian.container.spi.event.UnDeployDeployment;
+import org.jboss.arquillian.core.api.InstanceProducer;
+import org.jboss.arquillian.core.spi.EventContext;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Deployments that only differ in timestamp.txt are reused, and the container gets the new timestamp.
+ */
+public class DeploymentCacheObserverTest {
+    private DeploymentCacheObserver observer;
+    private Container container;
+    private int deploys;
+    private int undeploys;
+
+    @Before
+    public void setUp() throws Exception {
+        observer = new DeploymentCacheObserver();
+        inject("deploymentInstance", new Producer<Deployment>());
+        inject("protocolMetaData", new Producer<ProtocolMetaData>());
+
+        final DeployableContainer<?> deployable = proxy(DeployableContainer.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("undeploy".equals(method.getName())) {
+                    undeploys++;
+                }
+                return null;
+            }
+        });
+        container = proxy(Container.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "getName":
+                        return "test";
+                    case "getDeployableContainer":
+                        return deployable;
+                    default:
+                        return null;
+                }
+            }
+        });
+    }
+
+    private static WebArchive newArchive(Class<?> clazz, long timestamp) {
+        return ShrinkWrap.create(WebArchive.class)
+            .addClass(clazz)
+            .addAsWebInfResource(new StringAsset(String.valueOf(timestamp)), "classes/timestamp.txt");
+    }
+
+    @Test
+    public void testHashIgnoresTimestamp() {
+        assertEquals(DeploymentCacheObserver.getHash(newArchive(Producer.class, 1)), DeploymentCacheObserver.getHash(newArchive(Producer.class, 2)));
+        assertNotEquals(DeploymentCacheObserver.getHash(newArchive(Producer.class, 1)), DeploymentCacheObserver.getHash(newArchive(DeploymentCacheObserverTest.class, 1)));
+        assertEquals(2, DeploymentCacheObserver.getTimestamp(newArchive(Producer.class, 2)));
+        assertEquals(-1, DeploymentCacheObserver.getTimestamp(ShrinkWrap.create(WebArchive.class).addClass(Producer.class)));
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        Deployment first = deploy(newArchive(Producer.class, 1));
+        assertEquals(1, deploys);
+        assertEquals(1L, (long) pullTimestamp());
+        undeploy(first);
+
+        Deployment second = deploy(newArchive(Producer.class, 2));
+        assertEquals("reused", 1, deploys);
+        assertTrue(second.isDeployed());
+        assertEquals(2L, (long) pullTimestamp());
+        undeploy(second);
+        assertEquals("kept for the next class", 0, undeploys);
+
+        deploy(newArchive(DeploymentCacheObserverTest.class, 3));
+        assertEquals(2, deploys);
+        assertEquals("pending one undeployed", 1, undeploys);
+    }
+
+    private Deployment deploy(WebArchive archive) {
+        final Deployment deployment = new Deployment(new DeploymentDescription("test", archive));
+        observer.deploy(new Context<>(new DeployDeployment(container, deployment), new Runnable() {
+            public void run() {
+                deploys++;
+                deployment.deployed();
+            }
+        }));
+        return deployment;
+    }
+
+    private void undeploy(Deployment deployment) {
+        observer.undeploy(new Context<>(new UnDeployDeployment(container, deployment), new Runnable() {
+            public void run() {
+                undeploys++;
+            }
+        }));
+    }
+
+    private Long pullTimestamp() {
+        TimestampCommand command = new TimestampCommand();
+        observer.timestamp(command);
+        return command.getResult();
+    }
+
+    private void inject(String name, Object value) throws Exception {
+        Field field = DeploymentCacheObserver.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(observer, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(DeploymentCacheObserverTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static class Producer<T> implements InstanceProducer<T> {
+        private T value;
+
+        public T get() {
+            return value;
+        }
+
+        public void set(T value) {
+            this.value = value;
+        }
+    }
+
+    private static class Context<T> implements EventContext<T> {
+        private final T event;
+        private final Runnable proceed;
+
+        private Context(T event, Runnable proceed) {
+            this.event = event;
+            this.proceed = proceed;
+        }
+
+        public T getEvent() {
+            return event;
+        }
+
+        public void proceed() {
+            proceed.run();
+        }
+    }
+}
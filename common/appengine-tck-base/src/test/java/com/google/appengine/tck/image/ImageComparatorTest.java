@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.image;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the comparator metrics against values computed by hand.
+ */
+public class ImageComparatorTest {
+    private static final double C1 = (0.01 * 255) * (0.01 * 255);
+
+    @Test
+    public void testIdentical() {
+        BufferedImage image = PixelsTest.newImage(BufferedImage.TYPE_INT_ARGB);
+        ImageDiff diff = ImageComparator.create().minSsim(0.99).compare(image, copy(image));
+        assertTrue(diff.isMatch());
+        assertEquals(0, diff.getMaxChannelDelta());
+        assertEquals(Double.POSITIVE_INFINITY, diff.getPsnr(), 0.0);
+        assertEquals(1.0, diff.getSsim(), 1e-9);
+    }
+
+    @Test
+    public void testPsnr() {
+        int delta = 10;
+        ImageDiff diff = ImageComparator.create().maxDistance(2 * delta).compare(gray(100, 64, 64), gray(100 + delta, 64, 64));
+        // every channel but alpha differs by delta, MSE is over all four channels
+        double mse = 3.0 * delta * delta / 4;
+        assertTrue(diff.isMatch());
+        assertEquals(64 * 64, diff.getPixels());
+        assertEquals(delta, diff.getMaxChannelDelta());
+        assertEquals(Math.sqrt(3.0 * delta * delta), diff.getMaxDistance(), 1e-9);
+        assertEquals(10 * Math.log10(255 * 255 / mse), diff.getPsnr(), 1e-9);
+    }
+
+    @Test
+    public void testSsimOfFlatImages() {
+        // no variance, so SSIM is just the luminance term
+        int v = 100;
+        int w = 140;
+        ImageDiff diff = ImageComparator.create().maxDistance(510).compare(gray(v, 24, 16), gray(w, 24, 16));
+        assertTrue(Double.isNaN(diff.getSsim()));
+
+        diff = ImageComparator.create().maxDistance(510).minSsim(0.0).compare(gray(v, 24, 16), gray(w, 24, 16));
+        assertEquals((2.0 * v * w + C1) / ((double) v * v + (double) w * w + C1), diff.getSsim(), 1e-6);
+    }
+
+    @Test
+    public void testMinPsnrAndSsim() {
+        assertFalse(ImageComparator.create().maxDistance(510).minPsnr(30).compare(gray(0, 8, 8), gray(50, 8, 8)).isMatch());
+        assertFalse(ImageComparator.create().maxDistance(510).minSsim(0.9).compare(gray(0, 8, 8), gray(50, 8, 8)).isMatch());
+    }
+
+    @Test
+    public void testStopsOnMaxDistance() {
+        BufferedImage expected = gray(100, 16, 64);
+        BufferedImage actual = copy(expected);
+        actual.setRGB(3, 2, 0xff000000);
+        actual.setRGB(3, 60, 0xff000000);
+        ImageDiff diff = ImageComparator.create().maxDistance(15).compare(expected, actual);
+        assertFalse(diff.isMatch());
+        assertTrue(diff.getReason(), diff.getReason().startsWith("Pixel distance"));
+        assertEquals(16 * ImageComparator.BAND, diff.getPixels());
+    }
+
+    @Test
+    public void testSizeMismatch() {
+        assertFalse(ImageComparator.create().compare(gray(0, 8, 8), gray(0, 8, 9)).isMatch());
+    }
+
+    @Test
+    public void testParallelSameAsSerial() {
+        BufferedImage expected = noise(600, 600, 1);
+        BufferedImage actual = noise(600, 600, 2);
+        ImageDiff serial = ImageComparator.create().maxDistance(510).minSsim(-1.0).compare(expected, actual);
+        ImageDiff parallel = ImageComparator.create().maxDistance(510).minSsim(-1.0).parallelism(4).compare(expected, actual);
+        assertEquals(serial.getPixels(), parallel.getPixels());
+        assertEquals(serial.getMaxChannelDelta(), parallel.getMaxChannelDelta());
+        assertEquals(serial.getMaxDistance(), parallel.getMaxDistance(), 0.0);
+        assertEquals(serial.getPsnr(), parallel.getPsnr(), 0.0);
+        assertEquals(serial.getSsim(), parallel.getSsim(), 1e-12);
+    }
+
+    private static BufferedImage gray(int value, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int argb = 0xff000000 | value << 16 | value << 8 | value;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage noise(int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), image.getType());
+        copy.setData(image.getData());
+        return copy;
+    }
+}
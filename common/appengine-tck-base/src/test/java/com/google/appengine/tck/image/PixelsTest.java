@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.image;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Pixels must read the same ARGB values as BufferedImage.getRGB, for every raster layout.
+ */
+public class PixelsTest {
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 23;
+
+    @Test
+    public void testIntArgb() {
+        assertSameAsGetRGB(BufferedImage.TYPE_INT_ARGB, "IntPixels");
+    }
+
+    @Test
+    public void testIntRgb() {
+        assertSameAsGetRGB(BufferedImage.TYPE_INT_RGB, "IntPixels");
+    }
+
+    @Test
+    public void testThreeByteBgr() {
+        assertSameAsGetRGB(BufferedImage.TYPE_3BYTE_BGR, "RgbPixels");
+    }
+
+    @Test
+    public void testFourByteAbgr() {
+        assertSameAsGetRGB(BufferedImage.TYPE_4BYTE_ABGR, "RgbPixels");
+    }
+
+    @Test
+    public void testByteIndexed() {
+        assertSameAsGetRGB(BufferedImage.TYPE_BYTE_INDEXED, "IndexedPixels");
+    }
+
+    @Test
+    public void testGeneric() {
+        assertSameAsGetRGB(BufferedImage.TYPE_INT_ARGB_PRE, "GenericPixels");
+        assertSameAsGetRGB(BufferedImage.TYPE_USHORT_GRAY, "GenericPixels");
+    }
+
+    @Test
+    public void testSubimage() {
+        for (int type : new int[]{BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_BYTE_INDEXED}) {
+            assertSameAsGetRGB(newImage(type).getSubimage(5, 3, WIDTH - 9, HEIGHT - 7));
+        }
+    }
+
+    static BufferedImage newImage(int type) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, type);
+        Random random = new Random(type);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private static void assertSameAsGetRGB(int type, String reader) {
+        BufferedImage image = newImage(type);
+        assertEquals(reader, Pixels.of(image).getClass().getSimpleName());
+        assertSameAsGetRGB(image);
+    }
+
+    private static void assertSameAsGetRGB(BufferedImage image) {
+        Pixels pixels = Pixels.of(image);
+        int width = image.getWidth();
+        int[] expected = new int[width];
+        int[] actual = new int[width];
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, expected, 0, width);
+            pixels.read(y, actual);
+            assertArrayEquals(pixels.getClass().getSimpleName() + ", type " + image.getType() + ", row " + y, expected, actual);
+        }
+    }
+}
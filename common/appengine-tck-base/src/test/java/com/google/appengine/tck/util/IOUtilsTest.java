@@ -0,0 +1,55 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Channel copies must not spin on non-blocking channels.
+ */
+public class IOUtilsTest {
+    @Test
+    public void testCopy() throws Exception {
+        byte[] bytes = new byte[3 * BufferPool.BUFFER_SIZE + 7];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = IOUtils.copy(Channels.newChannel(new ByteArrayInputStream(bytes)), Channels.newChannel(out));
+        assertEquals(bytes.length, count);
+        assertArrayEquals(bytes, out.toByteArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonBlockingTarget() throws Exception {
+        Pipe pipe = Pipe.open();
+        try {
+            pipe.sink().configureBlocking(false);
+            IOUtils.copy(Channels.newChannel(new ByteArrayInputStream(new byte[1])), pipe.sink());
+        } finally {
+            pipe.sink().close();
+            pipe.source().close();
+        }
+    }
+}
@@ -47,6 +47,7 @@ import org.jboss.arquillian.test.spi.annotation.TestScoped;
 import org.jboss.arquillian.test.spi.context.ClassContext;
 import org.jboss.arquillian.test.spi.event.suite.Before;
 import org.jboss.arquillian.test.spi.event.suite.BeforeClass;
+import org.junit.internal.AssumptionViolatedException;
 import org.kohsuke.MetaInfServices;
 
 /**
@@ -138,6 +139,12 @@ public class ArquillianSuiteExtension implements LoadableExtension {
         }
 
         public void overrideBefore(@Observes EventContext<BeforeClass> event) {
+            Class<?> testClass = event.getEvent().getTestClass().getJavaClass();
+            if (Shards.isSelected(testClass) == false) {
+                // not in our shard's deployment, another shard runs it
+                throw new AssumptionViolatedException("Test class " + testClass.getName() + " belongs to another multisuite shard.");
+            }
+
             // Setup the Suite level scenario as if it came from the TestClass
             event.proceed();
             classDeploymentScenario.set(suiteDeploymentScenario);
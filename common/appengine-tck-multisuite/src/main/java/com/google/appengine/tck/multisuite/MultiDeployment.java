@@ -29,6 +29,8 @@ import org.jboss.shrinkwrap.api.spec.WebArchive;
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
 public class MultiDeployment {
+    private static final String PREFIX = "multisuite.";
+
     @Deployment
     public static WebArchive getDeployment() throws Exception {
         final ClassLoader cl = MultiDeployment.class.getClassLoader();
@@ -41,8 +43,18 @@ public class MultiDeployment {
         try (InputStream is = arqXml.openStream()) {
             overrides.load(is);
         }
+        // e.g. -Dmultisuite.shard=1
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith(PREFIX)) {
+                overrides.setProperty(key.substring(PREFIX.length()), System.getProperty(key));
+            }
+        }
 
         String name = overrides.getProperty("deployment.name", "gae-multisuite-tck.war");
+        String shard = overrides.getProperty("shard");
+        if (shard != null && Integer.parseInt(overrides.getProperty("shards", "1")) > 1) {
+            name = name.replace(".war", "-shard" + shard + ".war");
+        }
         WebArchive war = ShrinkWrap.create(WebArchive.class, name);
         File root = new File(arqXml.toURI()).getParentFile();
 
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.multisuite;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Test classes selected for the current multisuite shard.
+ * <p/>
+ * Set while building the shard's deployment, and used to skip
+ * the test classes that were deployed by other shards.
+ */
+public final class Shards {
+    private static volatile Set<String> selected;
+
+    private Shards() {
+    }
+
+    public static void select(Set<String> classNames) {
+        selected = Collections.unmodifiableSet(new HashSet<>(classNames));
+    }
+
+    public static boolean isSelected(Class<?> clazz) {
+        Set<String> current = selected;
+        return (current == null || current.contains(clazz.getName()));
+    }
+}
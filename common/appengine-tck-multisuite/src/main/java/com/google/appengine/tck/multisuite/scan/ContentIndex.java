@@ -0,0 +1,138 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.multisuite.scan;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.google.appengine.tck.deployment.ArchiveDigest;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
+import org.jboss.shrinkwrap.api.asset.Asset;
+import org.jboss.shrinkwrap.api.asset.ClassAsset;
+import org.jboss.shrinkwrap.api.asset.FileAsset;
+import org.jboss.shrinkwrap.api.asset.UrlAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+
+/**
+ * Path to content hash index of the uber archive.
+ * <p/>
+ * Uber resources are hashed at most once, no matter how many merges hit them,
+ * and it keeps track of benign duplicates vs. true conflicts.
+ * Merged assets from the same source (class, file, url) as the uber one are equal without reading them;
+ * otherwise they are hashed once per source too, as most archives ship the same TCK classes.
+ */
+public class ContentIndex {
+    private final WebArchive uber;
+    private final Map<String, String> hashes = new HashMap<>();
+    private final Map<Object, String> sourceHashes = new HashMap<>();
+
+    private int duplicates;
+    private int allowedDuplicates;
+    private final Set<String> conflicts = new TreeSet<>();
+
+    public ContentIndex(WebArchive uber) {
+        this.uber = uber;
+    }
+
+    /**
+     * Does merged asset have the same content as the existing uber one.
+     *
+     * @param path  the path
+     * @param asset the merged asset
+     * @return true if equal, false otherwise
+     */
+    public boolean isEqual(ArchivePath path, Asset asset) {
+        Node node = uber.get(path);
+        Asset existing = node.getAsset();
+
+        boolean equal = (existing == asset) || isSameSource(existing, asset) || getHash(path.get(), existing).equals(getHash(asset));
+        if (equal) {
+            duplicates++;
+        } else {
+            conflicts.add(path.get());
+        }
+        return equal;
+    }
+
+    public void allowedDuplicate() {
+        allowedDuplicates++;
+    }
+
+    private static boolean isSameSource(Asset existing, Asset asset) {
+        Object source = getSource(asset);
+        return (source != null) && source.equals(getSource(existing));
+    }
+
+    /**
+     * @return the asset's source, if it has a known one; same source means same content
+     */
+    private static Object getSource(Asset asset) {
+        if (asset instanceof ClassAsset) {
+            return ((ClassAsset) asset).getSource();
+        } else if (asset instanceof FileAsset) {
+            return ((FileAsset) asset).getSource();
+        } else if (asset instanceof UrlAsset) {
+            return ((UrlAsset) asset).getSource().toExternalForm();
+        }
+        return null;
+    }
+
+    private String getHash(Asset asset) {
+        Object source = getSource(asset);
+        if (source == null) {
+            return ArchiveDigest.digest(asset);
+        }
+        String hash = sourceHashes.get(source);
+        if (hash == null) {
+            hash = ArchiveDigest.digest(asset);
+            sourceHashes.put(source, hash);
+        }
+        return hash;
+    }
+
+    private String getHash(String path, Asset asset) {
+        String hash = hashes.get(path);
+        if (hash == null) {
+            hash = ArchiveDigest.digest(asset);
+            hashes.put(path, hash);
+        }
+        return hash;
+    }
+
+    public WebArchive getUber() {
+        return uber;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public int getAllowedDuplicates() {
+        return allowedDuplicates;
+    }
+
+    public Set<String> getConflicts() {
+        return conflicts;
+    }
+
+    public String getSummary() {
+        return String.format("%s identical duplicate(s) skipped, %s allowed duplicate(s), %s conflict(s)%s",
+            duplicates, allowedDuplicates, conflicts.size(), conflicts.isEmpty() ? "" : ": " + conflicts);
+    }
+}
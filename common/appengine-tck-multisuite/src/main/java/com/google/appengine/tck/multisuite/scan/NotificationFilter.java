@@ -46,12 +46,22 @@ public abstract class NotificationFilter implements Filter<ArchivePath> {
 
     protected final WebArchive uber;
     protected final WebArchive archive;
+    private ContentIndex index;
 
     protected NotificationFilter(WebArchive uber, WebArchive archive) {
         this.uber = uber;
         this.archive = archive;
     }
 
+    /**
+     * Use shared uber content index, instead of comparing asset bytes.
+     *
+     * @param index the index
+     */
+    public void setIndex(ContentIndex index) {
+        this.index = index;
+    }
+
     protected abstract void validate(ArchivePath path, boolean equal);
 
     protected boolean isAllowedDuplicate(Node node) {
@@ -60,11 +70,17 @@ public abstract class NotificationFilter implements Filter<ArchivePath> {
 
     public boolean include(ArchivePath path) {
         Node node = uber.get(path);
-        if (node != null && isAllowedDuplicate(node) == false) {
+        if (node != null) {
+            if (isAllowedDuplicate(node)) {
+                if (index != null) {
+                    index.allowedDuplicate();
+                }
+                return true;
+            }
             Asset asset = node.getAsset();
             if (asset != null) {
                 Asset other = archive.get(path).getAsset();
-                validate(path, equal(asset, other));
+                validate(path, (index != null) ? index.isEqual(path, other) : equal(asset, other));
             }
             return false;
         }
@@ -17,10 +17,18 @@ package com.google.appengine.tck.multisuite.scan;
 
 import java.io.File;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 
@@ -29,6 +37,7 @@ import com.google.appengine.tck.event.TestLifecycleEvent;
 import com.google.appengine.tck.event.TestLifecycles;
 import com.google.appengine.tck.multisuite.MultiContext;
 import com.google.appengine.tck.multisuite.MultiProvider;
+import com.google.appengine.tck.multisuite.Shards;
 import com.google.appengine.tck.scan.Context;
 import com.google.appengine.tck.scan.ScanStrategy;
 import org.jboss.arquillian.container.test.api.Deployment;
@@ -53,6 +62,11 @@ public class ScanMultiProvider implements MultiProvider, ScanStrategy {
     private final Pattern classPattern;
     private final ScanStrategy strategy;
     private final String filterClass;
+    private final int parallelism;
+    private final int shards;
+    private final int shard;
+    private final File history;
+    private ContentIndex index;
 
     public ScanMultiProvider() throws Exception {
         this(null);
@@ -76,15 +90,38 @@ public class ScanMultiProvider implements MultiProvider, ScanStrategy {
         }
 
         filterClass = properties.getProperty("filter");
+
+        // @Deployment methods touch shared state (TestLifecycles, ShrinkWrap), so concurrent reads are opt-in
+        parallelism = Math.max(1, Integer.parseInt(properties.getProperty("parallelism", "1")));
+
+        shards = Integer.parseInt(properties.getProperty("shards", "1"));
+        shard = Integer.parseInt(properties.getProperty("shard", "0"));
+        if (shards < 1 || shard < 0 || shard >= shards) {
+            throw new IllegalArgumentException(String.format("Invalid shard %s of %s shards.", shard, shards));
+        }
+        String h = properties.getProperty("history");
+        history = (h != null) ? new File(h) : null;
     }
 
     @SuppressWarnings("unchecked")
     protected Filter<ArchivePath> createFilter(WebArchive uber, WebArchive archive) throws Exception {
+        final Filter<ArchivePath> filter;
         if (filterClass != null) {
-            return (Filter<ArchivePath>) MultiContext.newInstance(ScanStrategy.class.getClassLoader(), filterClass, new Object[]{uber, archive}, new Class[]{WebArchive.class, WebArchive.class});
+            filter = (Filter<ArchivePath>) MultiContext.newInstance(ScanStrategy.class.getClassLoader(), filterClass, new Object[]{uber, archive}, new Class[]{WebArchive.class, WebArchive.class});
         } else {
-            return new WarningFilter(uber, archive);
+            filter = new WarningFilter(uber, archive);
+        }
+        if (filter instanceof NotificationFilter) {
+            NotificationFilter.class.cast(filter).setIndex(getIndex(uber));
+        }
+        return filter;
+    }
+
+    protected ContentIndex getIndex(WebArchive uber) {
+        if (index == null || index.getUber() != uber) {
+            index = new ContentIndex(uber);
         }
+        return index;
     }
 
     public boolean doMerge(Context context, Class<?> clazz) {
@@ -92,37 +129,121 @@ public class ScanMultiProvider implements MultiProvider, ScanStrategy {
     }
 
     public void provide(MultiContext context) throws Exception {
-        scan(context, context.getRoot());
+        final long start = System.currentTimeMillis();
+
+        List<Class<?>> candidates = new ArrayList<>();
+        scan(context, context.getRoot(), candidates);
+
+        List<Class<?>> selected = select(candidates);
+        List<Class<?>> classes = new ArrayList<>();
+        for (Class<?> clazz : selected) {
+            log.info("Adding test class: " + clazz.getName());
+            context.addClass(clazz);
+
+            if (strategy.doMerge(context, clazz)) {
+                classes.add(clazz);
+            }
+        }
+
+        // one archive per @Deployment method, as many classes inherit it
+        Map<Method, Future<WebArchive>> archives = readWebArchives(classes);
+        Set<Method> merged = new HashSet<>();
+        for (Class<?> clazz : classes) {
+            TestLifecycleEvent event = TestLifecycles.createMergeLifecycleEvent(clazz, context.getWar());
+
+            TestLifecycles.before(event);
+            try {
+                Method method = findDeploymentMethod(clazz);
+                if (merged.add(method)) {
+                    merge(context, getWebArchive(archives.get(method)));
+                }
+            } finally {
+                TestLifecycles.after(event);
+            }
+        }
+
+        if (shards > 1) {
+            log.info(String.format("Shard %s of %s: %s of %s test classes.", shard, shards, selected.size(), candidates.size()));
+        }
+        log.info(String.format("Merged %s test classes, %s deployments, in %sms.", classes.size(), merged.size(), System.currentTimeMillis() - start));
+        if (index != null) {
+            log.info("Merge summary: " + index.getSummary());
+        }
     }
 
-    protected void scan(MultiContext context, File current) throws Exception {
+    /**
+     * Select this shard's test classes, all of them if not sharded.
+     */
+    protected List<Class<?>> select(List<Class<?>> classes) {
+        if (shards == 1) {
+            return classes;
+        }
+
+        List<Class<?>> selected = new ShardPlanner(shards, history).plan(classes).get(shard);
+        Set<String> names = new HashSet<>();
+        for (Class<?> clazz : selected) {
+            names.add(clazz.getName());
+        }
+        Shards.select(names);
+        return selected;
+    }
+
+    protected void scan(MultiContext context, File current, List<Class<?>> classes) throws Exception {
         if (current.isFile()) {
             String name = current.getName();
             if (classPattern.matcher(name).matches()) {
                 Class<?> clazz = context.toClass(current);
                 if (isIgnore(clazz) == false) {
-                    log.info("Adding test class: " + clazz.getName());
-                    context.addClass(clazz);
-
-                    if (strategy.doMerge(context, clazz)) {
-                        TestLifecycleEvent event = TestLifecycles.createMergeLifecycleEvent(clazz, context.getWar());
-
-                        TestLifecycles.before(event);
-                        try {
-                            WebArchive war = readWebArchive(clazz);
-                            merge(context, war);
-                        } finally {
-                            TestLifecycles.after(event);
-                        }
-                    }
+                    classes.add(clazz);
                 } else {
                     log.info("Ignoring test class: " + clazz.getName());
                 }
             }
         } else {
-            for (File file : current.listFiles()) {
-                scan(context, file);
+            File[] files = current.listFiles();
+            Arrays.sort(files); // deterministic merge order
+            for (File file : files) {
+                scan(context, file, classes);
+            }
+        }
+    }
+
+    protected Map<Method, Future<WebArchive>> readWebArchives(List<Class<?>> classes) throws Exception {
+        final ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Map<Method, Future<WebArchive>> archives = new HashMap<>();
+            for (Class<?> clazz : classes) {
+                final Method method = findDeploymentMethod(clazz);
+                if (archives.containsKey(method) == false) {
+                    archives.put(method, pool.submit(new Callable<WebArchive>() {
+                        public WebArchive call() throws Exception {
+                            final ClassLoader previous = Thread.currentThread().getContextClassLoader();
+                            Thread.currentThread().setContextClassLoader(tccl);
+                            try {
+                                return readWebArchive(method);
+                            } finally {
+                                Thread.currentThread().setContextClassLoader(previous);
+                            }
+                        }
+                    }));
+                }
+            }
+            return archives;
+        } finally {
+            pool.shutdown(); // submitted tasks still complete
+        }
+    }
+
+    private static WebArchive getWebArchive(Future<WebArchive> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
             }
+            throw e;
         }
     }
 
@@ -142,10 +263,18 @@ public class ScanMultiProvider implements MultiProvider, ScanStrategy {
     }
 
     protected WebArchive readWebArchive(Class<?> clazz) throws Exception {
-        return readWebArchive(clazz, clazz);
+        return readWebArchive(findDeploymentMethod(clazz));
+    }
+
+    protected WebArchive readWebArchive(Method method) throws Exception {
+        return (WebArchive) method.invoke(null);
+    }
+
+    protected Method findDeploymentMethod(Class<?> clazz) {
+        return findDeploymentMethod(clazz, clazz);
     }
 
-    private WebArchive readWebArchive(Class<?> clazz, Class<?> current) throws Exception {
+    private Method findDeploymentMethod(Class<?> clazz, Class<?> current) {
         if (current == null || current == Object.class) {
             throw new IllegalArgumentException("No @Deployment on test class: " + clazz.getName());
         }
@@ -154,10 +283,10 @@ public class ScanMultiProvider implements MultiProvider, ScanStrategy {
         for (Method m : methods) {
             if (m.isAnnotationPresent(Deployment.class)) {
                 m.setAccessible(true); // in case of non-public
-                return (WebArchive) m.invoke(null);
+                return m;
             }
         }
 
-        return readWebArchive(clazz, current.getSuperclass());
+        return findDeploymentMethod(clazz, current.getSuperclass());
     }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.multisuite.scan;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Element;
+
+/**
+ * Split test classes into shards of similar duration.
+ * <p/>
+ * Durations come from a previous run's surefire reports (TEST-*.xml),
+ * classes without history get the average known duration.
+ * Classes are assigned longest first to the least loaded shard,
+ * so every shard computes the same plan from the same history.
+ */
+public class ShardPlanner {
+    private static final Logger log = Logger.getLogger(ShardPlanner.class.getName());
+
+    private final int shards;
+    private final Map<String, Double> durations;
+
+    public ShardPlanner(int shards, File history) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Invalid number of shards: " + shards);
+        }
+        this.shards = shards;
+        this.durations = readDurations(history);
+    }
+
+    /**
+     * Plan shards.
+     *
+     * @param classes the test classes
+     * @return test classes per shard, in original order
+     */
+    public List<List<Class<?>>> plan(List<Class<?>> classes) {
+        final Map<Class<?>, Double> weights = new HashMap<>();
+        final double unknown = getAverage();
+        for (Class<?> clazz : classes) {
+            Double duration = durations.get(clazz.getName());
+            weights.put(clazz, (duration != null) ? duration : unknown);
+        }
+
+        List<Class<?>> sorted = new ArrayList<>(classes);
+        Collections.sort(sorted, new Comparator<Class<?>>() {
+            public int compare(Class<?> c1, Class<?> c2) {
+                int diff = Double.compare(weights.get(c2), weights.get(c1));
+                return (diff != 0) ? diff : c1.getName().compareTo(c2.getName());
+            }
+        });
+
+        double[] loads = new double[shards];
+        List<Set<Class<?>>> assigned = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            assigned.add(new LinkedHashSet<Class<?>>());
+        }
+        for (Class<?> clazz : sorted) {
+            int min = 0;
+            for (int i = 1; i < shards; i++) {
+                if (loads[i] < loads[min]) {
+                    min = i;
+                }
+            }
+            loads[min] += weights.get(clazz);
+            assigned.get(min).add(clazz);
+        }
+
+        List<List<Class<?>>> plan = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            List<Class<?>> shard = new ArrayList<>();
+            for (Class<?> clazz : classes) {
+                if (assigned.get(i).contains(clazz)) {
+                    shard.add(clazz);
+                }
+            }
+            plan.add(shard);
+            log.info(String.format("Shard %s: %s test classes, estimated %.1fs.", i, shard.size(), loads[i]));
+        }
+        return plan;
+    }
+
+    private double getAverage() {
+        if (durations.isEmpty()) {
+            return 1.0;
+        }
+        double sum = 0.0;
+        for (Double duration : durations.values()) {
+            sum += duration;
+        }
+        return sum / durations.size();
+    }
+
+    private static Map<String, Double> readDurations(File history) {
+        Map<String, Double> durations = new HashMap<>();
+        if (history == null) {
+            return durations;
+        }
+        if (history.isDirectory() == false) {
+            log.warning("No multisuite shard history: " + history);
+            return durations;
+        }
+        try {
+            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            readDurations(builder, history, durations);
+        } catch (Exception e) {
+            log.log(Level.WARNING, "Cannot read multisuite shard history: " + history, e);
+        }
+        log.info(String.format("Read %s test class durations from %s.", durations.size(), history));
+        return durations;
+    }
+
+    private static void readDurations(DocumentBuilder builder, File current, Map<String, Double> durations) {
+        File[] files = current.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                readDurations(builder, file, durations);
+            } else if (ShardReports.isReport(file)) {
+                try {
+                    Element suite = builder.parse(file).getDocumentElement();
+                    if (ShardReports.hasRun(suite)) {
+                        double time = Double.parseDouble(suite.getAttribute("time").replace(",", ""));
+                        Double previous = durations.get(suite.getAttribute("name"));
+                        durations.put(suite.getAttribute("name"), (previous != null) ? Math.max(previous, time) : time);
+                    }
+                } catch (Exception e) {
+                    log.fine("Ignoring surefire report " + file + ": " + e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.multisuite.scan;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Element;
+
+/**
+ * Merge multisuite shard reports into a single surefire reports directory.
+ * <p/>
+ * Every shard writes a report for every test class, but only one shard runs it;
+ * the others report it as skipped. For each class we keep the report of the shard
+ * that actually ran it, so the merged directory holds each class exactly once.
+ * <p/>
+ * e.g. mvn exec:java -Dexec.mainClass=com.google.appengine.tck.multisuite.scan.ShardReports -Dexec.classpathScope=test -Dexec.args="target/surefire-reports"
+ */
+public class ShardReports {
+    private static final Logger log = Logger.getLogger(ShardReports.class.getName());
+
+    /**
+     * @param args the shard reports root, and optional merged reports directory (defaults to root)
+     * @throws Exception for any error
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 2) {
+            throw new IllegalArgumentException("Usage: ShardReports <shard reports root> [merged reports dir]");
+        }
+        File root = new File(args[0]);
+        File target = new File(args.length > 1 ? args[1] : args[0]);
+        log.info(String.format("Merged %s test class reports into %s.", merge(root, target), target));
+    }
+
+    /**
+     * Merge the reports found in root's subdirectories into target.
+     *
+     * @param root the shard reports root
+     * @param target the merged reports directory
+     * @return number of merged test class reports
+     * @throws Exception for any error
+     */
+    public static int merge(File root, File target) throws Exception {
+        File[] shards = root.listFiles();
+        if (shards == null) {
+            throw new IllegalArgumentException("No such shard reports directory: " + root);
+        }
+        DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        Map<String, File> reports = new TreeMap<>();
+        for (File shard : shards) {
+            File[] files = shard.isDirectory() ? shard.listFiles() : null;
+            if (files == null || shard.equals(target)) {
+                continue;
+            }
+            for (File file : files) {
+                if (isReport(file) && (reports.containsKey(file.getName()) == false || hasRun(builder.parse(file).getDocumentElement()))) {
+                    reports.put(file.getName(), file);
+                }
+            }
+        }
+        if (target.isDirectory() == false && target.mkdirs() == false) {
+            throw new IllegalStateException("Cannot create merged reports directory: " + target);
+        }
+        for (File report : reports.values()) {
+            Files.copy(report.toPath(), new File(target, report.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return reports.size();
+    }
+
+    static boolean isReport(File file) {
+        return file.isFile() && file.getName().startsWith("TEST-") && file.getName().endsWith(".xml");
+    }
+
+    /**
+     * Skipped test classes ran on some other shard.
+     */
+    static boolean hasRun(Element suite) {
+        return toInt(suite.getAttribute("tests")) > toInt(suite.getAttribute("skipped"));
+    }
+
+    private static int toInt(String value) {
+        return (value == null || value.length() == 0) ? 0 : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.endpoints.perf;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.google.appengine.tck.base.TestContext;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkResult;
+import com.google.appengine.tck.endpoints.EndPointsTestBase;
+import com.google.appengine.tck.endpoints.support.EndPointClient;
+import com.google.appengine.tck.endpoints.support.LoadHarness;
+import com.google.appengine.tck.endpoints.support.RpcEndpoint;
+import com.google.appengine.tck.endpoints.support.TestEndPoint;
+import com.google.appengine.tck.endpoints.support.TransformerEndPoint;
+import com.google.appengine.tck.stats.Histogram;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Concurrent load against TestEndPoint, RpcEndpoint and TransformerEndPoint.
+ * <p/>
+ * Configured with -Dtck.endpoints.load.threads, .duration and .warmup (in seconds),
+ * and .mix, e.g. -Dtck.endpoints.load.mix=get=4,post=1,rpc=2,echo=1,bar=1,baz=1
+ * Failed calls may be up to -Dtck.endpoints.load.max.error.ratio of all calls (default 0).
+ * The transformer test logs the cost of the transformed paths over a plain call
+ * as "OVERHEAD name,p50,mean" (in microseconds).
+ */
+@RunWith(Arquillian.class)
+public class EndPointsLoadTest extends EndPointsTestBase {
+    private static final Logger log = Logger.getLogger(EndPointsLoadTest.class.getName());
+
+    private static final String DEFAULT_MIX = "get=4,query=2,path=2,post=1,rpc=2,echo=1,bar=1,baz=1,foo=1";
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        TestContext context = new TestContext().setWebXmlFile("endpoints-load-web.xml");
+        context.setUseSystemProperties(true).setCompatibilityProperties(TCK_PROPERTIES);
+        WebArchive war = getDefaultDeployment(context);
+        war.addPackage(TestEndPoint.class.getPackage());
+        war.addClass(EndPointsLoadTest.class);
+        war.addPackage(Benchmark.class.getPackage());
+        war.addClass(Histogram.class);
+        war.addAsWebInfResource("rpcendpoint-v1-rest.discovery");
+        war.addAsWebInfResource("rpcendpoint-v1-rpc.discovery");
+        return war;
+    }
+
+    // tests run as client, where there is no tck.properties
+    private static int getIntProperty(String key, String defaultValue) {
+        return Integer.parseInt(System.getProperty(key, defaultValue));
+    }
+
+    private LoadHarness newHarness(String name) {
+        return LoadHarness.of(name, client)
+            .threads(getIntProperty("tck.endpoints.load.threads", "10"))
+            .duration(getIntProperty("tck.endpoints.load.duration", "30"), TimeUnit.SECONDS)
+            .warmup(getIntProperty("tck.endpoints.load.warmup", "5"), TimeUnit.SECONDS);
+    }
+
+    private URL testUrl(URL url, String methodPath) throws Exception {
+        return toHttps(new URL(url, createPath(TestEndPoint.NAME, TestEndPoint.VERSION, methodPath)));
+    }
+
+    private URL transformerUrl(URL url, String methodPath) throws Exception {
+        return toHttps(new URL(url, createPath(TransformerEndPoint.NAME, TransformerEndPoint.VERSION, methodPath)));
+    }
+
+    private URL rpcUrl(URL url, String methodPath) throws Exception {
+        return toHttps(new URL(url, createPath(RpcEndpoint.NAME, RpcEndpoint.VERSION, methodPath)));
+    }
+
+    /**
+     * All the calls we know, by mix name.
+     */
+    private Map<String, LoadHarness.Call> getCalls(URL url) throws Exception {
+        Map<String, LoadHarness.Call> calls = new LinkedHashMap<>();
+        calls.put("get", new GetCall("get", testUrl(url, "withoutParameters"), "method withoutParameters was invoked"));
+        calls.put("query", new GetCall("query", testUrl(url, "withParameterInQueryString?param=load"), "The param was load"));
+        calls.put("path", new GetCall("path", testUrl(url, "withParameterInPath/load"), "The param was load"));
+        calls.put("post", new PostCall("post", testUrl(url, "post"), null, "method post was invoked"));
+        calls.put("rpc", new GetCall("rpc", rpcUrl(url, "data"), "This is a string!"));
+        // echo back what data.get returns, so the request goes through deserialization too
+        String data = client.doGet(rpcUrl(url, "data"));
+        calls.put("echo", new PostCall("echo", rpcUrl(url, "data/echo"), data, "This is a string!"));
+        calls.put("bar", new GetCall("bar", transformerUrl(url, "bar"), "1,2"));
+        calls.put("baz", new GetCall("baz", transformerUrl(url, "baz"), "3,4"));
+        calls.put("foo", new PostCall("foo", transformerUrl(url, "foo"), null, "qwerty"));
+        return calls;
+    }
+
+    @Test
+    @RunAsClient
+    public void testRequestMix(@ArquillianResource URL url) throws Exception {
+        Map<String, LoadHarness.Call> calls = getCalls(url);
+        LoadHarness harness = newHarness("endpoints.mix");
+        for (String token : System.getProperty("tck.endpoints.load.mix", DEFAULT_MIX).split(",")) {
+            String[] pair = token.trim().split("=");
+            LoadHarness.Call call = calls.get(pair[0]);
+            if (call == null) {
+                throw new IllegalArgumentException("No such call: " + pair[0] + ", known calls: " + calls.keySet());
+            }
+            harness.add(Integer.parseInt(pair[1]), call);
+        }
+        BenchmarkResult all = harness.run().get("all");
+        assertTrue("No successful calls", all.getIterations() > 0);
+        assertErrors("endpoints.mix", harness, all);
+    }
+
+    @Test
+    @RunAsClient
+    public void testTransformerOverhead(@ArquillianResource URL url) throws Exception {
+        Map<String, LoadHarness.Call> calls = getCalls(url);
+        // same shape, GET returning a single string property, with and without a transformer
+        BenchmarkResult plain = runAlone(calls.get("get"));
+        for (String name : Arrays.asList("bar", "baz")) {
+            BenchmarkResult transformed = runAlone(calls.get(name));
+            Histogram a = transformed.getLatency();
+            Histogram b = plain.getLatency();
+            log.info(String.format("OVERHEAD endpoints.transformer.%s,%s,%.0f", name,
+                a.getValueAtPercentile(50) - b.getValueAtPercentile(50), a.getMean() - b.getMean()));
+        }
+    }
+
+    private BenchmarkResult runAlone(LoadHarness.Call call) throws Exception {
+        LoadHarness harness = newHarness("endpoints.single").add(1, call);
+        BenchmarkResult result = harness.run().get(call.getName());
+        assertTrue("No successful " + call.getName() + " calls", result.getIterations() > 0);
+        assertErrors(call.getName(), harness, result);
+        return result;
+    }
+
+    private static void assertErrors(String name, LoadHarness harness, BenchmarkResult result) {
+        double max = Double.parseDouble(System.getProperty("tck.endpoints.load.max.error.ratio", "0"));
+        long errors = harness.getErrors();
+        double ratio = (double) errors / (result.getIterations() + errors);
+        assertTrue(String.format("%s: %s failed calls, error ratio %.4f > %s", name, errors, ratio, max), ratio <= max);
+    }
+
+    private static class GetCall extends LoadHarness.Call {
+        private final URL url;
+        private final String expected;
+
+        private GetCall(String name, URL url, String expected) {
+            super(name);
+            this.url = url;
+            this.expected = expected;
+        }
+
+        protected String execute(EndPointClient client) throws Exception {
+            return client.doGet(url);
+        }
+
+        @Override
+        protected boolean isValid(String response) {
+            return response.contains(expected);
+        }
+    }
+
+    private static class PostCall extends LoadHarness.Call {
+        private final URL url;
+        private final String json;
+        private final String expected;
+
+        private PostCall(String name, URL url, String json, String expected) {
+            super(name);
+            this.url = url;
+            this.json = json;
+            this.expected = expected;
+        }
+
+        protected String execute(EndPointClient client) throws Exception {
+            return (json != null) ? client.doPost(url, json) : client.doPost(url);
+        }
+
+        @Override
+        protected boolean isValid(String response) {
+            return response.contains(expected);
+        }
+    }
+}
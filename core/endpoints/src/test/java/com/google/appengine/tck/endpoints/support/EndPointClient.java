@@ -27,6 +27,7 @@ import javax.net.ssl.SSLSocket;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
+import com.google.appengine.tck.util.HttpClientFactory;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpVersion;
 import org.apache.http.client.HttpClient;
@@ -42,8 +43,9 @@ import org.apache.http.conn.scheme.SchemeRegistry;
 import org.apache.http.conn.scheme.SchemeSocketFactory;
 import org.apache.http.conn.ssl.SSLSocketFactory;
 import org.apache.http.conn.ssl.X509HostnameVerifier;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.impl.conn.PoolingClientConnectionManager;
 import org.apache.http.params.BasicHttpParams;
 import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.params.HttpParams;
@@ -71,6 +73,12 @@ public class EndPointClient {
         return doRequest(new HttpPost(url.toURI()));
     }
 
+    public String doPost(URL url, String json) throws Exception {
+        HttpPost post = new HttpPost(url.toURI());
+        post.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+        return doRequest(post);
+    }
+
     public String doPut(URL url) throws Exception {
         return doRequest(new HttpPut(url.toURI()));
     }
@@ -121,15 +129,13 @@ public class EndPointClient {
     /**
      * Create client connection manager.
      * <p/>
-     * Create an HttpClient with the ThreadSafeClientConnManager.
-     * This connection manager must be used if more than one thread will
-     * be using the HttpClient.
+     * Pooled and thread safe, sized and counted by HttpClientFactory.
      *
      * @param schemeRegistry the scheme registry
      * @return new client connection manager
      */
     protected ClientConnectionManager createClientConnectionManager(SchemeRegistry schemeRegistry) {
-        return new PoolingClientConnectionManager(schemeRegistry);
+        return HttpClientFactory.createConnectionManager(schemeRegistry);
     }
 
     /**
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.endpoints.support;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkResult;
+import com.google.appengine.tck.stats.Histogram;
+
+/**
+ * Drives endpoints with a weighted request mix, from a fixed thread pool, for a given duration.
+ * <p/>
+ * Results are reported per call, and for all calls together, the same way as other benchmarks;
+ * failed calls are counted, as "ERRORS name,requests,errors", and the first failure of each call is logged.
+ * All threads share the one EndPointClient, so its pool should allow a connection per thread,
+ * e.g. -Dtck.http.max.per.route=50.
+ */
+public class LoadHarness {
+    private static final Logger log = Logger.getLogger(LoadHarness.class.getName());
+
+    private final String name;
+    private final EndPointClient client;
+    private final List<Call> calls = new ArrayList<>();
+    private int totalWeight;
+    private int threads = 10;
+    private long duration = TimeUnit.SECONDS.toNanos(30);
+    private long warmup = TimeUnit.SECONDS.toNanos(5);
+    private long errors;
+
+    private LoadHarness(String name, EndPointClient client) {
+        this.name = name;
+        this.client = client;
+    }
+
+    public static LoadHarness of(String name, EndPointClient client) {
+        return new LoadHarness(name, client);
+    }
+
+    public LoadHarness threads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be > 0: " + threads);
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    public LoadHarness duration(long duration, TimeUnit unit) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Duration must be > 0: " + duration);
+        }
+        this.duration = unit.toNanos(duration);
+        return this;
+    }
+
+    public LoadHarness warmup(long warmup, TimeUnit unit) {
+        if (warmup < 0) {
+            throw new IllegalArgumentException("Negative warmup: " + warmup);
+        }
+        this.warmup = unit.toNanos(warmup);
+        return this;
+    }
+
+    /**
+     * Add a call to the mix.
+     *
+     * @param weight relative frequency of the call, 0 leaves it out
+     * @param call   the call
+     */
+    public LoadHarness add(int weight, Call call) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight: " + weight);
+        }
+        if (weight > 0) {
+            call.weight = weight;
+            calls.add(call);
+            totalWeight += weight;
+        }
+        return this;
+    }
+
+    /**
+     * Run the load.
+     *
+     * @return results per call name, plus "all"
+     */
+    public Map<String, BenchmarkResult> run() throws Exception {
+        if (calls.isEmpty()) {
+            throw new IllegalStateException("No calls added!");
+        }
+        if (warmup > 0) {
+            runPhase(warmup, false);
+            for (Call call : calls) {
+                call.reset();
+            }
+        }
+        long elapsed = runPhase(duration, true);
+
+        Map<String, BenchmarkResult> results = new LinkedHashMap<>();
+        Histogram all = new Histogram();
+        errors = 0;
+        for (Call call : calls) {
+            results.put(call.name, Benchmark.report(name + "." + call.name, 1, call.latency, elapsed));
+            all.merge(call.latency);
+            errors += call.errors.get();
+        }
+        results.put("all", Benchmark.report(name + ".all", 1, all, elapsed));
+        log.info(String.format("ERRORS %s,%s,%s", name, all.getCount() + errors, errors));
+        return results;
+    }
+
+    /**
+     * @return failed calls of the last run, not in the results' latency
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    private long runPhase(long nanos, final boolean record) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final long start = System.nanoTime();
+            final long deadline = start + nanos;
+            List<Future<Void>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    public Void call() {
+                        while (System.nanoTime() < deadline) {
+                            invoke(pick(), record);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Exception) {
+                        throw (Exception) cause;
+                    }
+                    throw e;
+                }
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Call pick() {
+        int r = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Call call : calls) {
+            r -= call.weight;
+            if (r < 0) {
+                return call;
+            }
+        }
+        throw new IllegalStateException("Weights out of sync!");
+    }
+
+    private void invoke(Call call, boolean record) {
+        boolean ok;
+        long start = System.nanoTime();
+        try {
+            String response = call.execute(client);
+            ok = call.isValid(response);
+            if (ok == false && call.failed.compareAndSet(false, true)) {
+                log.warning(String.format("First failure of %s.%s, invalid response: %s", name, call.name, response));
+            }
+        } catch (Exception e) {
+            ok = false;
+            if (call.failed.compareAndSet(false, true)) {
+                log.log(Level.WARNING, String.format("First failure of %s.%s", name, call.name), e);
+            }
+        }
+        long time = System.nanoTime() - start;
+        if (record) {
+            if (ok) {
+                call.latency.record(time / 1000);
+            } else {
+                call.errors.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * One kind of request in the mix.
+     */
+    public abstract static class Call {
+        private final String name;
+        private int weight;
+        private Histogram latency = new Histogram();
+        private AtomicLong errors = new AtomicLong();
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        protected Call(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Invoke the endpoint.
+         *
+         * @param client the shared client
+         * @return the response body
+         * @throws Exception for any error
+         */
+        protected abstract String execute(EndPointClient client) throws Exception;
+
+        /**
+         * Is the response what we expect; invalid responses count as errors.
+         *
+         * @param response the response body
+         * @return true if valid, false otherwise
+         */
+        protected boolean isValid(String response) {
+            return true;
+        }
+
+        private void reset() {
+            latency = new Histogram();
+            errors = new AtomicLong();
+        }
+    }
+}
@@ -22,10 +22,10 @@ import java.net.URL;
 import com.google.appengine.tck.base.TestBase;
 import com.google.appengine.tck.base.TestContext;
 import com.google.appengine.tck.misc.staticfiles.support.FooServlet;
+import com.google.appengine.tck.util.HttpClientFactory;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.util.EntityUtils;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.container.test.api.RunAsClient;
@@ -107,13 +107,13 @@ public class StaticFilesTest extends TestBase {
     }
 
     private void assertResponse(URL url, String path, Tester tester) throws URISyntaxException, IOException {
-        final HttpClient client = new DefaultHttpClient();
+        final HttpClient client = HttpClientFactory.newClient();
+        HttpGet get = new HttpGet(new URL(url, path).toURI());
+        HttpResponse response = client.execute(get);
         try {
-            HttpGet get = new HttpGet(new URL(url, path).toURI());
-            HttpResponse response = client.execute(get);
             tester.doAssert(response);
         } finally {
-            client.getConnectionManager().shutdown();
+            EntityUtils.consume(response.getEntity());
         }
     }
 
@@ -27,6 +27,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import com.google.appengine.tck.base.TestBase;
+import com.google.appengine.tck.util.IOUtils;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
 import org.junit.Before;
 
@@ -64,11 +65,7 @@ public abstract class SocketsTestBase extends TestBase {
     }
 
     protected static String toStream(InputStreamReader in) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        for (int c; (c = in.read()) != -1; ) {
-            sb.append(String.valueOf((char) c));
-        }
-        return sb.toString();
+        return IOUtils.toString(in);
     }
 
     protected void initGoogleDnsSet() {
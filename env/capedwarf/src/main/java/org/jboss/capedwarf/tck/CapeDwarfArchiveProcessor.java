@@ -23,6 +23,7 @@ import java.util.logging.Logger;
 
 import com.google.appengine.tck.arquillian.EnvApplicationArchiveProcessor;
 import com.google.appengine.tck.event.TestLifecycle;
+import com.google.appengine.tck.image.ImageComparator;
 import com.google.appengine.tck.util.Utils;
 import org.jboss.shrinkwrap.api.Node;
 import org.jboss.shrinkwrap.api.asset.StringAsset;
@@ -84,6 +85,7 @@ public class CapeDwarfArchiveProcessor extends EnvApplicationArchiveProcessor {
         );
 
         war.addClass(CapedwarfEmailAddressFormatter.class);
+        war.addPackage(ImageComparator.class.getPackage());
 
         addCompatibility(war, COMPATIBILITY);
 
@@ -15,18 +15,13 @@
 
 package org.jboss.capedwarf.tck;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.lang.reflect.Field;
 
-import javax.imageio.ImageIO;
-
-import com.google.appengine.api.images.Image;
 import com.google.appengine.api.images.Transform;
-import com.google.appengine.tck.event.AbstractImageLifecycle;
+import com.google.appengine.tck.event.AbstractComparingImageLifecycle;
 import com.google.appengine.tck.event.ImageLifecycleEvent;
 import com.google.appengine.tck.event.TestLifecycle;
+import com.google.appengine.tck.image.ImageComparator;
 import org.kohsuke.MetaInfServices;
 
 
@@ -35,58 +30,22 @@ import org.kohsuke.MetaInfServices;
  * @author <a href="mailto:mluksa@redhat.com">Marko Luksa</a>
  */
 @MetaInfServices(TestLifecycle.class)
-public class CapeDwarfImageLifecycle extends AbstractImageLifecycle {
-
-    public static final double DELTA = 15.0;
-
-    protected void doBefore(ImageLifecycleEvent event) {
-        BufferedImage expected = getBufferedImage(event.getExpected());
-        BufferedImage actual = getBufferedImage(event.getTransformed());
-
-        if (expected.getWidth() != actual.getWidth() || expected.getHeight() != actual.getHeight()) {
-            event.setResult(false);
-            return;
-        }
-
-        for (int y = 0; y < expected.getHeight(); y++) {
-            for (int x = 0; x < expected.getWidth(); x++) {
-                int expectedARGB = expected.getRGB(x, y);
-                int transformedARGB = actual.getRGB(x, y);
-                double distance = distance(expectedARGB, transformedARGB);
-                if (distance > DELTA) {
-                    event.setResult(false);
-                    return;
-                }
-            }
-        }
-        event.setResult(true);
-    }
-
-    private double distance(int argb1, int argb2) {
-        int a1 = argb1 >> 24 & 0xff;
-        int a2 = argb2 >> 24 & 0xff;
-        int r1 = argb1 >> 16 & 0xff;
-        int r2 = argb2 >> 16 & 0xff;
-        int g1 = argb1 >> 8 & 0xff;
-        int g2 = argb2 >> 8 & 0xff;
-        int b1 = argb1 & 0xff;
-        int b2 = argb2 & 0xff;
-        return Math.sqrt((a1 - a2) ^ 2 + (r1 - r2) ^ 2 + (g1 - g2) ^ 2 + (b1 - b2) ^ 2);
-    }
-
-    protected void doAfter(ImageLifecycleEvent event) {
-    }
-
-    protected static BufferedImage getBufferedImage(Image image) {
-        return convertToBufferedImage(image.getImageData());
-    }
-
-    protected static BufferedImage convertToBufferedImage(byte[] byteArray) {
-        try {
-            return ImageIO.read(new ByteArrayInputStream(byteArray));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+public class CapeDwarfImageLifecycle extends AbstractComparingImageLifecycle {
+
+    // legitimate JPEG / PNG re-encodes differ by up to 144 on single pixels (edges), at ~28dB PSNR and ~0.995 SSIM;
+    // so the per pixel distance only catches gross errors, PSNR and SSIM do the real check
+    public static final double DELTA = 255.0;
+    public static final double MIN_PSNR = 25.0;
+    public static final double MIN_SSIM = 0.95;
+
+    private static final ImageComparator COMPARATOR = ImageComparator.create()
+        .maxDistance(DELTA)
+        .minPsnr(MIN_PSNR)
+        .minSsim(MIN_SSIM)
+        .parallelism(Runtime.getRuntime().availableProcessors());
+
+    protected ImageComparator getComparator(ImageLifecycleEvent event) {
+        return COMPARATOR;
     }
 
     @SuppressWarnings("unchecked")
@@ -24,7 +24,6 @@ import javassist.CtClass;
 import javassist.CtMethod;
 import org.jboss.shrinkwrap.api.asset.StringAsset;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
-import org.jboss.shrinkwrap.resolver.api.maven.PomEquippedResolveStage;
 
 /**
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
@@ -82,22 +81,22 @@ public class AppEngineDataNucleusTransformer extends ArquillianJUnitTransformer
         war.addAsWebInfResource("META-INF/jdoconfig.xml", "classes/META-INF/jdoconfig.xml");
         war.addAsResource(new StringAsset("ignore.logging=true\n"), "capedwarf-compatibility.properties");
 
-        final PomEquippedResolveStage resolver = getResolver("pom.xml");
+        final String pom = "pom.xml";
         // GAE DN libs
-        war.addAsLibraries(resolve(resolver, "com.google.appengine.orm:datanucleus-appengine"));
-        war.addAsLibraries(resolve(resolver, "com.google.appengine:appengine-api-1.0-sdk"));
-        war.addAsLibraries(resolve(resolver, "com.google.appengine:appengine-testing"));
-        war.addAsLibraries(resolve(resolver, "com.google.appengine:appengine-api-stubs"));
-        war.addAsLibraries(resolve(resolver, "org.datanucleus:datanucleus-core"));
-        war.addAsLibraries(resolve(resolver, "org.datanucleus:datanucleus-api-jdo"));
-        war.addAsLibraries(resolve(resolver, "org.datanucleus:datanucleus-api-jpa"));
-        war.addAsLibraries(resolve(resolver, "javax.jdo:jdo-api"));
-        war.addAsLibraries(resolve(resolver, "org.apache.geronimo.specs:geronimo-jpa_2.0_spec"));
-        war.addAsLibraries(resolve(resolver, "org.easymock:easymock"));
-        war.addAsLibraries(resolve(resolver, "org.easymock:easymockclassextension"));
+        war.addAsLibraries(resolve(pom, "com.google.appengine.orm:datanucleus-appengine"));
+        war.addAsLibraries(resolve(pom, "com.google.appengine:appengine-api-1.0-sdk"));
+        war.addAsLibraries(resolve(pom, "com.google.appengine:appengine-testing"));
+        war.addAsLibraries(resolve(pom, "com.google.appengine:appengine-api-stubs"));
+        war.addAsLibraries(resolve(pom, "org.datanucleus:datanucleus-core"));
+        war.addAsLibraries(resolve(pom, "org.datanucleus:datanucleus-api-jdo"));
+        war.addAsLibraries(resolve(pom, "org.datanucleus:datanucleus-api-jpa"));
+        war.addAsLibraries(resolve(pom, "javax.jdo:jdo-api"));
+        war.addAsLibraries(resolve(pom, "org.apache.geronimo.specs:geronimo-jpa_2.0_spec"));
+        war.addAsLibraries(resolve(pom, "org.easymock:easymock"));
+        war.addAsLibraries(resolve(pom, "org.easymock:easymockclassextension"));
         // TCK Internals
-        war.addAsLibraries(resolve(resolver, "com.google.appengine.tck:appengine-tck-transformers")); // cleanup dep
-        war.addAsLibraries(resolve(resolver, "com.google.appengine.tck:appengine-tck-base")); // lifecycle dep
+        war.addAsLibraries(resolve(pom, "com.google.appengine.tck:appengine-tck-transformers")); // cleanup dep
+        war.addAsLibraries(resolve(pom, "com.google.appengine.tck:appengine-tck-base")); // lifecycle dep
 
         return war;
     }
@@ -18,7 +18,6 @@ package com.google.appengine.tck.transformers.example;
 import com.google.appengine.tck.transformers.ArquillianJUnitTransformer;
 import javassist.CtClass;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
-import org.jboss.shrinkwrap.resolver.api.maven.PomEquippedResolveStage;
 
 /**
  * A simple example of how to enable an existing test that does not follow the TCK framework.
@@ -43,17 +42,17 @@ public class ExampleJUnitTransformer extends ArquillianJUnitTransformer {
         // Include this even though you may not have an appengine-web.xml for your tests.
         war.addAsWebInfResource("appengine-web.xml");
 
-        final PomEquippedResolveStage resolver = getResolver("pom.xml");
+        final String pom = "pom.xml";
 
         // Necessary to run under App Engine.
-        war.addAsLibraries(resolve(resolver, "com.google.appengine:appengine-api-1.0-sdk"));
+        war.addAsLibraries(resolve(pom, "com.google.appengine:appengine-api-1.0-sdk"));
 
         // GAE testing lib
-        war.addAsLibraries(resolve(resolver, "com.google.appengine:appengine-testing"));
+        war.addAsLibraries(resolve(pom, "com.google.appengine:appengine-testing"));
 
         // TCK Internals necessary for any tests to run under the TCK.
-        war.addAsLibraries(resolve(resolver, "com.google.appengine.tck:appengine-tck-transformers")); // cleanup dep
-        war.addAsLibraries(resolve(resolver, "com.google.appengine.tck:appengine-tck-base")); // lifecycle dep
+        war.addAsLibraries(resolve(pom, "com.google.appengine.tck:appengine-tck-transformers")); // cleanup dep
+        war.addAsLibraries(resolve(pom, "com.google.appengine.tck:appengine-tck-base")); // lifecycle dep
 
         return war;
     }
@@ -15,6 +15,10 @@
 
 package com.google.appengine.tck.mapreduce;
 
+import java.util.concurrent.TimeUnit;
+
+import com.google.appengine.tck.await.Await;
+import com.google.appengine.tck.await.Condition;
 import com.google.appengine.tck.base.TestBase;
 import com.google.appengine.tck.base.TestContext;
 import com.google.appengine.tck.lib.LibUtils;
@@ -69,18 +73,28 @@ public abstract class MapReduceTestBase extends TestBase {
     }
 
     protected JobInfo waitToFinish(final String phase, final String handle) throws Exception {
-        PipelineService pipelineService = PipelineServiceFactory.newPipelineService();
-        JobInfo jobInfo = getJobInfo(pipelineService, phase, handle);
+        final PipelineService pipelineService = PipelineServiceFactory.newPipelineService();
+        JobInfo jobInfo = Await.atMost(2, TimeUnit.MINUTES)
+            .pollInterval(500, TimeUnit.MILLISECONDS)
+            .maxPollInterval(5, TimeUnit.SECONDS)
+            .poll(new Condition<JobInfo>() {
+                public JobInfo get() throws Exception {
+                    // new info lookup
+                    return getJobInfo(pipelineService, phase, handle);
+                }
+
+                @Override
+                public boolean isSatisfied(JobInfo value) {
+                    return isRunning(value.getJobState()) == false;
+                }
+
+                @Override
+                public String toString() {
+                    return "Job[" + phase + ", " + handle + "]";
+                }
+            });
         JobInfo.State state = jobInfo.getJobState();
-        int N = 24; // 2min
-        while (isRunning(state) && N > 0) {
-            N--;
-            sync(5 * 1000L); // 5sec
-            // new info lookup
-            jobInfo = getJobInfo(pipelineService, phase, handle);
-            state = jobInfo.getJobState();
-        }
-        if (N == 0 && isRunning(state)) {
+        if (isRunning(state)) {
             throw new IllegalStateException("Failed to finish the job [ " + phase + " ]: " + handle + ", info: " + toInfo(jobInfo));
         }
         if (state != JobInfo.State.COMPLETED_SUCCESSFULLY) {
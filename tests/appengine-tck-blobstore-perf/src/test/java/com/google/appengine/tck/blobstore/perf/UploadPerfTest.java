@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.blobstore.perf;
+
+import java.net.URL;
+
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import com.google.appengine.tck.blobstore.BlobstoreTestBase;
+import com.google.appengine.tck.blobstore.support.FileUploader;
+import com.google.appengine.tck.blobstore.support.GeneratedInputStream;
+import com.google.appengine.tck.stats.Histogram;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.test.api.ArquillianResource;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Streamed upload throughput (MB/s), and upload handler processing time, by upload size.
+ * <p/>
+ * Content is generated on the fly, so sizes are not bound by client heap,
+ * e.g. -Dtck.blobstore.upload.sizes=1,16,64,256 (in MB).
+ */
+@RunWith(Arquillian.class)
+public class UploadPerfTest extends BlobstoreTestBase {
+    private static final int MB = 1024 * 1024;
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getBaseDeployment().addClass(UploadPerfTest.class);
+    }
+
+    @Test
+    @RunAsClient
+    public void testStreamedUpload(@ArquillianResource final URL url) throws Exception {
+        // client side, there is no tck.properties
+        final int iterations = Integer.parseInt(System.getProperty("tck.benchmark.iterations", "5"));
+        for (String token : System.getProperty("tck.blobstore.upload.sizes", "1,16,64").split(",")) {
+            final int sizeMB = Integer.parseInt(token.trim());
+            final Histogram handler = new Histogram();
+            final long[] handlerNanos = new long[1];
+            final FileUploader uploader = new FileUploader();
+            Benchmark.of("blobstore.upload." + sizeMB + "MB").warmup(1).iterations(iterations).operations(sizeMB).run(new BenchmarkTask() {
+                private String uploadUrl;
+                private GeneratedInputStream contents;
+                private FileUploader.Result result;
+
+                public void before(int iteration) throws Exception {
+                    uploadUrl = uploader.getUploadUrl(new URL(url, "getUploadUrl"), FileUploader.Method.POST);
+                    contents = new GeneratedInputStream(iteration, (long) sizeMB * MB);
+                }
+
+                public void run(int iteration) throws Exception {
+                    result = uploader.uploadStream(uploadUrl, "file", "perf-" + sizeMB + ".bin", "application/octet-stream", contents, 200);
+                }
+
+                public void after(int iteration) throws Exception {
+                    if (result.getMd5Hash() != null) {
+                        assertEquals(contents.getMd5Hash(), result.getMd5Hash());
+                        assertEquals(contents.getSize(), result.getSize());
+                    }
+                    if (iteration >= 0 && result.getHandlerMicros() >= 0) {
+                        handler.record(result.getHandlerMicros());
+                        handlerNanos[0] += result.getHandlerMicros() * 1000;
+                    }
+                }
+            });
+            if (handler.getCount() > 0) {
+                Benchmark.report("blobstore.upload.handler." + sizeMB + "MB", 1, handler, handlerNanos[0]);
+            }
+        }
+    }
+}
@@ -19,7 +19,7 @@ import java.io.IOException;
 
 import com.google.appengine.api.blobstore.BlobKey;
 import com.google.appengine.api.blobstore.BlobstoreInputStream;
-import com.google.appengine.tck.blobstore.support.IOUtils;
+import com.google.appengine.tck.util.IOUtils;
 import org.jboss.arquillian.junit.Arquillian;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -22,12 +22,12 @@ import java.util.Map;
 import java.util.Set;
 
 import com.google.appengine.tck.blobstore.support.FileUploader;
+import com.google.appengine.tck.util.HttpClientFactory;
 import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.util.EntityUtils;
 import org.jboss.arquillian.container.test.api.RunAsClient;
@@ -51,15 +51,11 @@ public class BlobstoreServeTest extends SimpleBlobstoreTestBase {
 
         final String content = new String(UPLOADED_CONTENT);
         final URI uri = new URL(url, "blobserviceserve?blobKey=" + blobKey).toURI();
-        final HttpClient client = new DefaultHttpClient();
-        try {
-            doTest(client, uri, null, null, content);
-            doTest(client, uri, Collections.<Header>singleton(new BasicHeader("Range", "bytes=1-3")), null, content.substring(1, 3 + 1));
-            doTest(client, uri, null, Collections.singletonMap("blobRange", "2"), content.substring(2));
-            doTest(client, uri, null, Collections.singletonMap("blobRangeString", "bytes=2-5"), content.substring(2, 5 + 1));
-        } finally {
-            client.getConnectionManager().shutdown();
-        }
+        final HttpClient client = HttpClientFactory.newClient();
+        doTest(client, uri, null, null, content);
+        doTest(client, uri, Collections.<Header>singleton(new BasicHeader("Range", "bytes=1-3")), null, content.substring(1, 3 + 1));
+        doTest(client, uri, null, Collections.singletonMap("blobRange", "2"), content.substring(2));
+        doTest(client, uri, null, Collections.singletonMap("blobRangeString", "bytes=2-5"), content.substring(2, 5 + 1));
     }
 
     private void doTest(HttpClient client, URI uri, Set<Header> headers, Map<String, String> params, String expected) throws Exception {
@@ -21,6 +21,7 @@ import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 
+import com.google.appengine.tck.util.IOUtils;
 import org.jboss.arquillian.container.test.api.RunAsClient;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.arquillian.test.api.ArquillianResource;
@@ -122,16 +123,7 @@ public class BlobstoreTest extends SimpleBlobstoreTestBase {
     }
 
     private String readFullyAndClose(InputStream in) throws IOException {
-        try {
-            StringBuilder sbuf = new StringBuilder();
-            int ch;
-            while ((ch = in.read()) != -1) {
-                sbuf.append((char) ch);
-            }
-            return sbuf.toString();
-        } finally {
-            in.close();
-        }
+        return IOUtils.toString(in, true);
     }
 
 }
@@ -29,10 +29,11 @@ import com.google.appengine.tck.base.TestContext;
 import com.google.appengine.tck.blobstore.support.BlobserviceServeServlet;
 import com.google.appengine.tck.blobstore.support.FileUploader;
 import com.google.appengine.tck.blobstore.support.GcsHandlerServlet;
-import com.google.appengine.tck.blobstore.support.IOUtils;
+import com.google.appengine.tck.blobstore.support.GeneratedInputStream;
 import com.google.appengine.tck.blobstore.support.ServeBlobServlet;
 import com.google.appengine.tck.blobstore.support.UploadHandlerServlet;
 import com.google.appengine.tck.blobstore.support.UploadUrlServerServlet;
+import com.google.appengine.tck.util.IOUtils;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
 
 /**
@@ -70,9 +71,9 @@ public class BlobstoreTestBase extends TestBase {
         TestContext testContext = new TestContext().setWebXmlFile("blob_web.xml");
         return getTckDeployment(testContext)
             .addClass(BlobstoreTestBase.class)
-            .addClass(IOUtils.class)
             .addClass(GcsHandlerServlet.class)
             .addClass(FileUploader.class)
+            .addClass(GeneratedInputStream.class)
             .addClass(ServeBlobServlet.class)
             .addClass(UploadUrlServerServlet.class)
             .addClass(UploadHandlerServlet.class)
@@ -84,7 +85,7 @@ public class BlobstoreTestBase extends TestBase {
         AppEngineFile file = fileService.createNewBlobFile("text/plain", "uploadedText.txt");
         FileWriteChannel channel = fileService.openWriteChannel(file, true);
         try {
-            channel.write(ByteBuffer.wrap(text.getBytes()));
+            IOUtils.writeFully(channel, ByteBuffer.wrap(text.getBytes()));
         } finally {
             channel.closeFinally();
         }
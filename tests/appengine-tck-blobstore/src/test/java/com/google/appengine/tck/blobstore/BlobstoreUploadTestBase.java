@@ -29,6 +29,7 @@ import com.google.appengine.api.files.FileReadChannel;
 import com.google.appengine.api.files.FileService;
 import com.google.appengine.api.files.FileServiceFactory;
 import com.google.appengine.tck.blobstore.support.FileUploader;
+import com.google.appengine.tck.blobstore.support.GeneratedInputStream;
 import com.google.appengine.tck.blobstore.support.UploadHandlerServlet;
 import org.jboss.arquillian.container.test.api.RunAsClient;
 import org.jboss.arquillian.junit.InSequence;
@@ -47,6 +48,9 @@ import static org.junit.Assert.assertNull;
 public class BlobstoreUploadTestBase extends BlobstoreTestBase {
     private static Random RANDOM = new Random();
 
+    private static final long STREAMED_SEED = 20130901L;
+    private static final long STREAMED_SIZE = 3 * 1024 * 1024 + 17;
+
     @Test
     @RunAsClient
     @InSequence(10)
@@ -134,6 +138,35 @@ public class BlobstoreUploadTestBase extends BlobstoreTestBase {
         Assert.assertTrue(String.format("Received blobKey '%s'", blobKey), blobKey.contains("gs")); // TODO -- better way?
     }
 
+    @Test
+    @InSequence(90)
+    public void resetUploadHandlerServletForStream() throws Exception {
+        UploadHandlerServlet.reset();
+    }
+
+    @Test
+    @RunAsClient
+    @InSequence(100)
+    public void testStreamedUpload_upload(@ArquillianResource URL url) throws Exception {
+        FileUploader fileUploader = new FileUploader();
+        String uploadUrl = fileUploader.getUploadUrl(new URL(url, "getUploadUrl"), FileUploader.Method.POST);
+        GeneratedInputStream contents = new GeneratedInputStream(STREAMED_SEED, STREAMED_SIZE);
+        FileUploader.Result result = fileUploader.uploadStream(uploadUrl, "file", getRandomName(), "application/octet-stream", contents, 200);
+        if (result.getMd5Hash() != null) {
+            assertEquals(contents.getMd5Hash(), result.getMd5Hash());
+            assertEquals(STREAMED_SIZE, result.getSize());
+        }
+    }
+
+    @Test
+    @InSequence(110)
+    public void testStreamedUpload_assert() throws Exception {
+        BlobInfo blobInfo = UploadHandlerServlet.getLastUploadedBlobInfo();
+        assertNotNull("blobInfo should not be null", blobInfo);
+        assertEquals(STREAMED_SIZE, blobInfo.getSize());
+        assertEquals(GeneratedInputStream.md5Hash(STREAMED_SEED, STREAMED_SIZE), blobInfo.getMd5Hash());
+    }
+
     private static String getRandomName() {
         return String.format("file%s.txt", Math.abs(RANDOM.nextInt()));
     }
@@ -25,8 +25,8 @@ import com.google.appengine.api.blobstore.BlobKey;
 import com.google.appengine.api.blobstore.BlobstoreService;
 import com.google.appengine.api.blobstore.BlobstoreServiceFactory;
 import com.google.appengine.tck.blobstore.support.FileUploader;
-import com.google.appengine.tck.blobstore.support.IOUtils;
 import com.google.appengine.tck.lib.LibUtils;
+import com.google.appengine.tck.util.IOUtils;
 import com.google.appengine.tools.cloudstorage.GcsFileOptions;
 import com.google.appengine.tools.cloudstorage.GcsFilename;
 import com.google.appengine.tools.cloudstorage.GcsOutputChannel;
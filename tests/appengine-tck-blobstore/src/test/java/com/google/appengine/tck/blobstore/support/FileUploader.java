@@ -16,11 +16,14 @@
 package com.google.appengine.tck.blobstore.support;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.Collections;
 import java.util.Map;
 
+import com.google.appengine.tck.util.HttpClientFactory;
+import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
@@ -29,7 +32,7 @@ import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.mime.MultipartEntity;
 import org.apache.http.entity.mime.content.ByteArrayBody;
-import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.entity.mime.content.InputStreamBody;
 import org.apache.http.util.EntityUtils;
 import org.junit.Assert;
 
@@ -60,24 +63,20 @@ public class FileUploader {
         for (Map.Entry<String, String> entry : params.entrySet()) {
             builder.addParameter(entry.getKey(), entry.getValue());
         }
-        HttpClient httpClient = new DefaultHttpClient();
-        try {
-            HttpUriRequest request;
-            switch (method) {
-                case GET:
-                    request = new HttpGet(builder.build());
-                    break;
-                case POST:
-                    request = new HttpPost(builder.build());
-                    break;
-                default:
-                    throw new IllegalArgumentException(String.format("No such method: %s", method));
-            }
-            HttpResponse response = httpClient.execute(request);
-            return EntityUtils.toString(response.getEntity()).trim();
-        } finally {
-            httpClient.getConnectionManager().shutdown();
+        HttpClient httpClient = HttpClientFactory.newClient();
+        HttpUriRequest request;
+        switch (method) {
+            case GET:
+                request = new HttpGet(builder.build());
+                break;
+            case POST:
+                request = new HttpPost(builder.build());
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("No such method: %s", method));
         }
+        HttpResponse response = httpClient.execute(request);
+        return EntityUtils.toString(response.getEntity()).trim();
     }
 
     public String uploadFile(String uri, String partName, String filename, String mimeType, byte[] contents) throws URISyntaxException, IOException {
@@ -85,21 +84,50 @@ public class FileUploader {
     }
 
     public String uploadFile(String uri, String partName, String filename, String mimeType, byte[] contents, int expectedResponseCode) throws URISyntaxException, IOException {
-        HttpClient httpClient = new DefaultHttpClient();
-        try {
-            HttpPost post = new HttpPost(uri);
-            MultipartEntity entity = new MultipartEntity();
-            ByteArrayBody contentBody = new ByteArrayBody(contents, mimeType, filename);
-            entity.addPart(partName, contentBody);
-            post.setEntity(entity);
-            HttpResponse response = httpClient.execute(post);
-            String result = EntityUtils.toString(response.getEntity());
-            int statusCode = response.getStatusLine().getStatusCode();
-            Assert.assertEquals(String.format("Invalid response code, %s", statusCode), expectedResponseCode, statusCode);
-            return result;
-        } finally {
-            httpClient.getConnectionManager().shutdown();
-        }
+        HttpClient httpClient = HttpClientFactory.newClient();
+        HttpPost post = new HttpPost(uri);
+        MultipartEntity entity = new MultipartEntity();
+        ByteArrayBody contentBody = new ByteArrayBody(contents, mimeType, filename);
+        entity.addPart(partName, contentBody);
+        post.setEntity(entity);
+        HttpResponse response = httpClient.execute(post);
+        String result = EntityUtils.toString(response.getEntity());
+        int statusCode = response.getStatusLine().getStatusCode();
+        Assert.assertEquals(String.format("Invalid response code, %s", statusCode), expectedResponseCode, statusCode);
+        return result;
+    }
+
+    /**
+     * Upload streamed contents, never holding them in memory.
+     * The part length is unknown, so the request is sent with chunked transfer encoding.
+     */
+    public Result uploadStream(String uri, String partName, String filename, String mimeType, InputStream contents, int expectedResponseCode) throws URISyntaxException, IOException {
+        return uploadStream(uri, partName, filename, mimeType, contents, -1, expectedResponseCode);
+    }
+
+    /**
+     * Upload streamed contents, never holding them in memory.
+     * With a known length the request has a Content-Length, otherwise (-1) it is chunked.
+     */
+    public Result uploadStream(String uri, String partName, String filename, String mimeType, InputStream contents, final long length, int expectedResponseCode) throws URISyntaxException, IOException {
+        HttpClient httpClient = HttpClientFactory.newClient();
+        HttpPost post = new HttpPost(uri);
+        MultipartEntity entity = new MultipartEntity();
+        InputStreamBody contentBody = new InputStreamBody(contents, mimeType, filename) {
+            @Override
+            public long getContentLength() {
+                return length;
+            }
+        };
+        entity.addPart(partName, contentBody);
+        post.setEntity(entity);
+        long start = System.nanoTime();
+        HttpResponse response = httpClient.execute(post);
+        String result = EntityUtils.toString(response.getEntity());
+        long elapsed = System.nanoTime() - start;
+        int statusCode = response.getStatusLine().getStatusCode();
+        Assert.assertEquals(String.format("Invalid response code, %s", statusCode), expectedResponseCode, statusCode);
+        return new Result(result, elapsed, response);
     }
 
     /**
@@ -111,4 +139,59 @@ public class FileUploader {
         return uploadFile(uri, partName, "", "application/octet-stream", new byte[0]);
     }
 
+    /**
+     * Streamed upload response, with UploadHandlerServlet's extra headers, if any.
+     */
+    public static class Result {
+        private final String body;
+        private final long elapsedNanos;
+        private final long handlerMicros;
+        private final String md5Hash;
+        private final long size;
+
+        private Result(String body, long elapsedNanos, HttpResponse response) {
+            this.body = body;
+            this.elapsedNanos = elapsedNanos;
+            this.handlerMicros = toLong(response.getFirstHeader(UploadHandlerServlet.HANDLER_TIME_HEADER));
+            Header md5 = response.getFirstHeader(UploadHandlerServlet.BLOB_MD5_HEADER);
+            this.md5Hash = (md5 != null) ? md5.getValue() : null;
+            this.size = toLong(response.getFirstHeader(UploadHandlerServlet.BLOB_SIZE_HEADER));
+        }
+
+        private static long toLong(Header header) {
+            return (header != null) ? Long.parseLong(header.getValue().trim()) : -1L;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        /**
+         * Client side round trip, including the upload itself.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Upload handler processing time, -1 if unknown.
+         */
+        public long getHandlerMicros() {
+            return handlerMicros;
+        }
+
+        /**
+         * Stored blob MD5, null if unknown.
+         */
+        public String getMd5Hash() {
+            return md5Hash;
+        }
+
+        /**
+         * Stored blob size, -1 if unknown.
+         */
+        public long getSize() {
+            return size;
+        }
+    }
 }
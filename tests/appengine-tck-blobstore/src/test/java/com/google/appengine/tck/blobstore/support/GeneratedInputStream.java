@@ -0,0 +1,129 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.blobstore.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Deterministic pseudo-random content, generated on the fly, with a running MD5.
+ * <p/>
+ * Same seed and size give same bytes, so large uploads can be verified
+ * without ever holding the content in memory.
+ */
+public class GeneratedInputStream extends InputStream {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final long size;
+    private final MessageDigest md5;
+    private long state;
+    private long position;
+    private long word;
+    private int wordBytes;
+    private String md5Hash;
+
+    public GeneratedInputStream(long seed, long size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative size: " + size);
+        }
+        this.size = size;
+        this.state = (seed == 0) ? 0x9E3779B97F4A7C15L : seed;
+        try {
+            this.md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * MD5 of the content, without keeping it.
+     *
+     * @param seed the seed
+     * @param size the size
+     * @return hex MD5, same format as BlobInfo.getMd5Hash
+     */
+    public static String md5Hash(long seed, long size) throws IOException {
+        GeneratedInputStream in = new GeneratedInputStream(seed, size);
+        byte[] buffer = new byte[64 * 1024];
+        //noinspection StatementWithEmptyBody
+        while (in.read(buffer) != -1) {
+        }
+        return in.getMd5Hash();
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * MD5 of the content read so far.
+     *
+     * @return hex MD5
+     * @throws IllegalStateException if not fully read yet
+     */
+    public String getMd5Hash() {
+        if (position < size) {
+            throw new IllegalStateException(String.format("Only %s of %s bytes read", position, size));
+        }
+        if (md5Hash == null) {
+            byte[] digest = md5.digest();
+            char[] chars = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                chars[2 * i] = HEX[(digest[i] >> 4) & 0xf];
+                chars[2 * i + 1] = HEX[digest[i] & 0xf];
+            }
+            md5Hash = new String(chars);
+        }
+        return md5Hash;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return (read(b, 0, 1) == -1) ? -1 : (b[0] & 0xff);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (position >= size) {
+            return -1;
+        }
+        int n = (int) Math.min(len, size - position);
+        for (int i = off; i < off + n; i++) {
+            if (wordBytes == 0) {
+                // xorshift64
+                state ^= state << 13;
+                state ^= state >>> 7;
+                state ^= state << 17;
+                word = state;
+                wordBytes = 8;
+            }
+            b[i] = (byte) word;
+            word >>>= 8;
+            wordBytes--;
+        }
+        md5.update(b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(Integer.MAX_VALUE, size - position);
+    }
+}
@@ -28,6 +28,7 @@ import com.google.appengine.api.files.AppEngineFile;
 import com.google.appengine.api.files.FileService;
 import com.google.appengine.api.files.FileServiceFactory;
 import com.google.appengine.api.files.FileWriteChannel;
+import com.google.appengine.tck.util.IOUtils;
 
 /**
  * @author <a href="mailto:mluksa@redhat.com">Marko Luksa</a>
@@ -56,7 +57,7 @@ public class ServeBlobServlet extends HttpServlet {
     private void writeToFile(AppEngineFile file, String content) throws IOException {
         FileWriteChannel channel = service.openWriteChannel(file, true);
         try {
-            channel.write(ByteBuffer.wrap(content.getBytes()));
+            IOUtils.writeFully(channel, ByteBuffer.wrap(content.getBytes()));
         } finally {
             channel.closeFinally();
         }
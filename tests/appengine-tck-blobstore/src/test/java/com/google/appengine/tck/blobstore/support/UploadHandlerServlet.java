@@ -35,6 +35,9 @@ import com.google.appengine.api.blobstore.FileInfo;
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
 public class UploadHandlerServlet extends HttpServlet {
+    public static final String HANDLER_TIME_HEADER = "X-Tck-Handler-Time";
+    public static final String BLOB_MD5_HEADER = "X-Tck-Blob-Md5";
+    public static final String BLOB_SIZE_HEADER = "X-Tck-Blob-Size";
 
     private static BlobKey lastUploadedBlobKey;
     private static BlobInfo lastUploadedBlobInfo;
@@ -42,12 +45,21 @@ public class UploadHandlerServlet extends HttpServlet {
 
     @Override
     protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        final long start = System.nanoTime();
         BlobstoreService blobstore = BlobstoreServiceFactory.getBlobstoreService();
 
         lastUploadedBlobKey = getFirst(blobstore.getUploads(request));
         lastUploadedBlobInfo = getFirst(blobstore.getBlobInfos(request));
         lastUploadedFileInfo = getFirst(blobstore.getFileInfos(request));
 
+        BlobInfo info = lastUploadedBlobInfo;
+        if (info != null) {
+            response.setHeader(BLOB_MD5_HEADER, info.getMd5Hash());
+            response.setHeader(BLOB_SIZE_HEADER, String.valueOf(info.getSize()));
+        }
+        // handler time in micros, set before any body is written
+        response.setHeader(HANDLER_TIME_HEADER, String.valueOf((System.nanoTime() - start) / 1000));
+
         BlobKey tmp = lastUploadedBlobKey;
         if (tmp != null) {
             response.getWriter().write(tmp.getKeyString());
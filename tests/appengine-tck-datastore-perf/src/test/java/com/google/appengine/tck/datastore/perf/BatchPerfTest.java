@@ -0,0 +1,134 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.datastore.perf;
+
+import java.util.List;
+
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Single vs. batched put / get / delete.
+ */
+@RunWith(Arquillian.class)
+public class BatchPerfTest extends DatastorePerfTestBase {
+    private static final String KIND = "BatchPerf";
+    private static final int BATCH = 100;
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @After
+    public void cleanUp() {
+        deleteAll(KIND);
+    }
+
+    @Test
+    public void testSinglePut() throws Exception {
+        final List<Entity> entities = newEntities(KIND, BATCH, 100);
+        Benchmark.of("datastore.put.single").warmup(2).iterations(10).operations(BATCH).run(new BenchmarkTask() {
+            public void run(int iteration) {
+                for (Entity entity : entities) {
+                    service.put(entity);
+                }
+            }
+        });
+        assertStored(entities);
+    }
+
+    @Test
+    public void testBatchPut() throws Exception {
+        final List<Entity> entities = newEntities(KIND, BATCH, 100);
+        Benchmark.of("datastore.put.batch").warmup(2).iterations(10).operations(BATCH).run(new BenchmarkTask() {
+            public void run(int iteration) {
+                service.put(entities);
+            }
+        });
+        assertStored(entities);
+    }
+
+    @Test
+    public void testSingleGet() throws Exception {
+        final List<Key> keys = service.put(newEntities(KIND, BATCH, 100));
+        Benchmark.of("datastore.get.single").warmup(2).iterations(10).operations(BATCH).run(new BenchmarkTask() {
+            public void run(int iteration) throws Exception {
+                for (Key key : keys) {
+                    assertEquals(key, service.get(key).getKey());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testBatchGet() throws Exception {
+        final List<Key> keys = service.put(newEntities(KIND, BATCH, 100));
+        Benchmark.of("datastore.get.batch").warmup(2).iterations(10).operations(BATCH).run(new BenchmarkTask() {
+            public void run(int iteration) {
+                assertEquals(BATCH, service.get(keys).size());
+            }
+        });
+    }
+
+    @Test
+    public void testSingleDelete() throws Exception {
+        final List<Entity> entities = newEntities(KIND, BATCH, 100);
+        Benchmark.of("datastore.delete.single").warmup(2).iterations(10).operations(BATCH).run(new BenchmarkTask() {
+            private List<Key> keys;
+
+            @Override
+            public void before(int iteration) {
+                keys = service.put(entities);
+            }
+
+            public void run(int iteration) {
+                for (Key key : keys) {
+                    service.delete(key);
+                }
+            }
+        });
+        assertDeleted(entities);
+    }
+
+    @Test
+    public void testBatchDelete() throws Exception {
+        final List<Entity> entities = newEntities(KIND, BATCH, 100);
+        Benchmark.of("datastore.delete.batch").warmup(2).iterations(10).operations(BATCH).run(new BenchmarkTask() {
+            private List<Key> keys;
+
+            @Override
+            public void before(int iteration) {
+                keys = service.put(entities);
+            }
+
+            public void run(int iteration) {
+                service.delete(keys);
+            }
+        });
+        assertDeleted(entities);
+    }
+}
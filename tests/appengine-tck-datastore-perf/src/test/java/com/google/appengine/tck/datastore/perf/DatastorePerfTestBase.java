@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.datastore.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.appengine.api.datastore.Blob;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.tck.await.Await;
+import com.google.appengine.tck.await.Condition;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.datastore.DatastoreHelperTestBase;
+import com.google.appengine.tck.stats.Histogram;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Datastore benchmarks base.
+ * <p/>
+ * Benchmark entities are root entities, so writes are not throttled by a single entity group.
+ */
+public abstract class DatastorePerfTestBase extends DatastoreHelperTestBase {
+    protected static final String PAYLOAD = "payload";
+    protected static final String INDEX = "index";
+    protected static final String NAME = "name";
+
+    protected static WebArchive getPerfDeployment() {
+        WebArchive war = getHelperDeployment();
+        war.addClass(DatastorePerfTestBase.class);
+        war.addPackage(Benchmark.class.getPackage());
+        war.addClass(Histogram.class);
+        return war;
+    }
+
+    /**
+     * Deterministic payload of given size.
+     */
+    protected static Blob payload(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31 + 7);
+        }
+        return new Blob(bytes);
+    }
+
+    protected static List<Entity> newEntities(String kind, int count, int size) {
+        Blob payload = payload(size);
+        List<Entity> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Entity entity = new Entity(kind);
+            entity.setProperty(INDEX, i);
+            entity.setProperty(NAME, "name-" + i);
+            entity.setUnindexedProperty(PAYLOAD, payload);
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    protected static List<Key> keys(List<Entity> entities) {
+        List<Key> keys = new ArrayList<>(entities.size());
+        for (Entity entity : entities) {
+            keys.add(entity.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * Read entities back and check their payload.
+     */
+    protected void assertStored(List<Entity> entities) {
+        Map<Key, Entity> stored = service.get(keys(entities));
+        assertEquals(entities.size(), stored.size());
+        for (Entity entity : entities) {
+            assertEquals(entity.getProperty(PAYLOAD), stored.get(entity.getKey()).getProperty(PAYLOAD));
+        }
+    }
+
+    protected void assertDeleted(List<Entity> entities) {
+        assertTrue(service.get(keys(entities)).isEmpty());
+    }
+
+    protected List<Key> queryKeys(String kind) {
+        List<Key> keys = new ArrayList<>();
+        for (Entity entity : service.prepare(new Query(kind).setKeysOnly()).asIterable()) {
+            keys.add(entity.getKey());
+        }
+        return keys;
+    }
+
+    protected void deleteAll(String kind) {
+        List<Key> keys = queryKeys(kind);
+        for (int i = 0; i < keys.size(); i += 500) {
+            service.delete(keys.subList(i, Math.min(i + 500, keys.size())));
+        }
+    }
+
+    /**
+     * Wait until non-ancestor queries see the expected number of entities.
+     */
+    protected void awaitCount(final String kind, final int count) {
+        Await.atMost(30, TimeUnit.SECONDS).until(new Condition<Integer>() {
+            public Integer get() throws Exception {
+                return service.prepare(new Query(kind).setKeysOnly()).countEntities(FetchOptions.Builder.withDefaults());
+            }
+
+            @Override
+            public boolean isSatisfied(Integer value) {
+                return value == count;
+            }
+        });
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.datastore.perf;
+
+import java.util.Collections;
+
+import com.google.appengine.api.datastore.Blob;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Put / get latency by entity size, 1KB to 1MB (just below the entity size limit).
+ */
+@RunWith(Arquillian.class)
+public class EntitySizePerfTest extends DatastorePerfTestBase {
+    private static final String KIND = "EntitySizePerf";
+    private static final int[] SIZES = {1000, 10 * 1000, 100 * 1000, 1000 * 1000};
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @After
+    public void cleanUp() {
+        deleteAll(KIND);
+    }
+
+    @Test
+    public void testPutBySize() throws Exception {
+        for (int size : SIZES) {
+            final Entity entity = newEntities(KIND, 1, size).get(0);
+            Benchmark.of("datastore.put.size." + size).warmup(2).iterations(10).run(new BenchmarkTask() {
+                public void run(int iteration) {
+                    service.put(entity);
+                }
+            });
+            assertStored(Collections.singletonList(entity));
+        }
+    }
+
+    @Test
+    public void testGetBySize() throws Exception {
+        for (final int size : SIZES) {
+            final Key key = service.put(newEntities(KIND, 1, size).get(0));
+            Benchmark.of("datastore.get.size." + size).warmup(2).iterations(10).run(new BenchmarkTask() {
+                public void run(int iteration) throws Exception {
+                    Blob payload = (Blob) service.get(key).getProperty(PAYLOAD);
+                    assertEquals(size, payload.getBytes().length);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.datastore.perf;
+
+import java.util.List;
+
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.PropertyProjection;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Keys-only vs. projection vs. full entity queries, over the same entities.
+ */
+@RunWith(Arquillian.class)
+public class QueryPerfTest extends DatastorePerfTestBase {
+    private static final String KIND = "QueryPerf";
+    private static final int COUNT = 200;
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Before
+    public void createData() {
+        service.put(newEntities(KIND, COUNT, 10 * 1000));
+        awaitCount(KIND, COUNT);
+    }
+
+    @After
+    public void cleanUp() {
+        deleteAll(KIND);
+    }
+
+    @Test
+    public void testKeysOnlyQuery() throws Exception {
+        benchmark("datastore.query.keysonly", new Query(KIND).setKeysOnly(), null);
+    }
+
+    @Test
+    public void testProjectionQuery() throws Exception {
+        benchmark("datastore.query.projection", new Query(KIND).addProjection(new PropertyProjection(INDEX, Long.class)), INDEX);
+    }
+
+    @Test
+    public void testFullQuery() throws Exception {
+        benchmark("datastore.query.full", new Query(KIND), PAYLOAD);
+    }
+
+    /**
+     * @param property the property results must have, or null if they have none
+     */
+    private void benchmark(String name, final Query query, String property) throws Exception {
+        Benchmark.of(name).warmup(2).iterations(20).operations(COUNT).run(new BenchmarkTask() {
+            public void run(int iteration) {
+                List<Entity> entities = service.prepare(query).asList(FetchOptions.Builder.withChunkSize(COUNT));
+                assertEquals(COUNT, entities.size());
+            }
+        });
+
+        Entity first = service.prepare(query).asList(FetchOptions.Builder.withLimit(1)).get(0);
+        if (property != null) {
+            assertTrue(first.hasProperty(property));
+        } else {
+            assertTrue(first.getProperties().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.datastore.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import com.google.appengine.api.datastore.AsyncDatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Sequential DatastoreService calls vs. concurrent AsyncDatastoreService calls.
+ */
+@RunWith(Arquillian.class)
+public class SyncAsyncPerfTest extends DatastorePerfTestBase {
+    private static final String KIND = "SyncAsyncPerf";
+    private static final int CALLS = 20;
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @After
+    public void cleanUp() {
+        deleteAll(KIND);
+    }
+
+    @Test
+    public void testSyncPut() throws Exception {
+        final List<Entity> entities = newEntities(KIND, CALLS, 1024);
+        Benchmark.of("datastore.put.sync").warmup(2).iterations(10).operations(CALLS).run(new BenchmarkTask() {
+            public void run(int iteration) {
+                for (Entity entity : entities) {
+                    service.put(entity);
+                }
+            }
+        });
+        assertStored(entities);
+    }
+
+    @Test
+    public void testAsyncPut() throws Exception {
+        final AsyncDatastoreService async = DatastoreServiceFactory.getAsyncDatastoreService();
+        final List<Entity> entities = newEntities(KIND, CALLS, 1024);
+        Benchmark.of("datastore.put.async").warmup(2).iterations(10).operations(CALLS).run(new BenchmarkTask() {
+            public void run(int iteration) throws Exception {
+                List<Future<Key>> futures = new ArrayList<>(CALLS);
+                for (Entity entity : entities) {
+                    futures.add(async.put(entity));
+                }
+                for (Future<Key> future : futures) {
+                    future.get();
+                }
+            }
+        });
+        assertStored(entities);
+    }
+
+    @Test
+    public void testSyncGet() throws Exception {
+        final List<Key> keys = service.put(newEntities(KIND, CALLS, 1024));
+        Benchmark.of("datastore.get.sync").warmup(2).iterations(10).operations(CALLS).run(new BenchmarkTask() {
+            public void run(int iteration) throws Exception {
+                for (Key key : keys) {
+                    assertEquals(key, service.get(key).getKey());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testAsyncGet() throws Exception {
+        final AsyncDatastoreService async = DatastoreServiceFactory.getAsyncDatastoreService();
+        final List<Key> keys = service.put(newEntities(KIND, CALLS, 1024));
+        Benchmark.of("datastore.get.async").warmup(2).iterations(10).operations(CALLS).run(new BenchmarkTask() {
+            public void run(int iteration) throws Exception {
+                List<Future<Entity>> futures = new ArrayList<>(CALLS);
+                for (Key key : keys) {
+                    futures.add(async.get(key));
+                }
+                for (int i = 0; i < CALLS; i++) {
+                    assertEquals(keys.get(i), futures.get(i).get().getKey());
+                }
+            }
+        });
+    }
+}
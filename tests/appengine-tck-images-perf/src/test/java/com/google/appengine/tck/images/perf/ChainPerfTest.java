@@ -0,0 +1,71 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.images.perf;
+
+import com.google.appengine.api.images.CompositeTransform;
+import com.google.appengine.api.images.Image;
+import com.google.appengine.api.images.ImagesServiceFactory;
+import com.google.appengine.api.images.Transform;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * applyTransform latency by transform chain length, one call per chain.
+ */
+@RunWith(Arquillian.class)
+public class ChainPerfTest extends ImagesPerfTestBase {
+    private static final int[] LENGTHS = {1, 2, 4, 8};
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Test
+    public void testChainLength() throws Exception {
+        byte[] data = readImageBytes(CAPEDWARF_PNG);
+        Image original = ImagesServiceFactory.makeImage(data);
+        for (int length : LENGTHS) {
+            Image result = benchmarkTransform("images.chain." + length, data, chain(length));
+            int rotations = (length + 2) / 3;
+            if (rotations % 2 == 1) {
+                assertRotated(data, result);
+            } else {
+                assertSize(original.getWidth(), original.getHeight(), result);
+            }
+        }
+    }
+
+    private static Transform chain(int length) {
+        CompositeTransform chain = ImagesServiceFactory.makeCompositeTransform();
+        for (int i = 0; i < length; i++) {
+            switch (i % 3) {
+                case 0:
+                    chain.concatenate(ImagesServiceFactory.makeRotate(90));
+                    break;
+                case 1:
+                    chain.concatenate(ImagesServiceFactory.makeHorizontalFlip());
+                    break;
+                default:
+                    chain.concatenate(ImagesServiceFactory.makeVerticalFlip());
+            }
+        }
+        return chain;
+    }
+}
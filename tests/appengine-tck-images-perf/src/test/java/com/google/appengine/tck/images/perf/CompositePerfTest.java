@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.images.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.appengine.api.images.Composite;
+import com.google.appengine.api.images.Image;
+import com.google.appengine.api.images.ImagesServiceFactory;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * composite latency by number of layers, up to the 16 layers limit.
+ */
+@RunWith(Arquillian.class)
+public class CompositePerfTest extends ImagesPerfTestBase {
+    private static final int[] LAYERS = {1, 4, 16};
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Test
+    public void testCompositeLayers() throws Exception {
+        final Image image = readImage(CAPEDWARF_PNG);
+        final int width = image.getWidth() * 4;
+        final int height = image.getHeight() * 4;
+        for (int layers : LAYERS) {
+            final List<Composite> composites = new ArrayList<>(layers);
+            for (int i = 0; i < layers; i++) {
+                int x = (i % 4) * image.getWidth();
+                int y = (i / 4) * image.getHeight();
+                composites.add(ImagesServiceFactory.makeComposite(image, x, y, 1, Composite.Anchor.TOP_LEFT));
+            }
+            Image result = benchmark("images.composite." + layers, new ImageTask() {
+                protected Image apply(int iteration) {
+                    return imagesService.composite(composites, width, height, 0);
+                }
+            });
+            assertSize(width, height, result);
+        }
+    }
+}
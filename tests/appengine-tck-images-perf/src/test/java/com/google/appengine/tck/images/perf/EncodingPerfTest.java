@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.images.perf;
+
+import java.util.logging.Logger;
+
+import com.google.appengine.api.images.Image;
+import com.google.appengine.api.images.ImagesService.OutputEncoding;
+import com.google.appengine.api.images.ImagesServiceFactory;
+import com.google.appengine.api.images.ImagesServiceFailureException;
+import com.google.appengine.api.images.OutputSettings;
+import com.google.appengine.api.images.Transform;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * applyTransform latency per output encoding, and JPEG quality.
+ */
+@RunWith(Arquillian.class)
+public class EncodingPerfTest extends ImagesPerfTestBase {
+    private static final Logger log = Logger.getLogger(EncodingPerfTest.class.getName());
+
+    private static final int[] QUALITIES = {50, 75, 100};
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Test
+    public void testOutputEncodings() throws Exception {
+        byte[] data = upscale(readImageBytes(CAPEDWARF_PNG), 4);
+        Transform transform = ImagesServiceFactory.makeRotate(90);
+        for (OutputEncoding encoding : OutputEncoding.values()) {
+            try {
+                Image result = benchmarkTransform("images.encoding." + encoding, data, transform, new OutputSettings(encoding));
+                assertRotated(data, result);
+                assertEquals(encoding.name(), result.getFormat().name());
+            } catch (ImagesServiceFailureException e) {
+                log.warning(String.format("Encoding %s not supported: %s", encoding, e.getMessage()));
+            }
+        }
+    }
+
+    @Test
+    public void testJpegQuality() throws Exception {
+        byte[] data = upscale(readImageBytes(CAPEDWARF_PNG), 4);
+        Transform transform = ImagesServiceFactory.makeRotate(90);
+        for (int quality : QUALITIES) {
+            OutputSettings settings = new OutputSettings(OutputEncoding.JPEG);
+            settings.setQuality(quality);
+            Image result = benchmarkTransform("images.encoding.JPEG.q" + quality, data, transform, settings);
+            assertRotated(data, result);
+            assertEquals(Image.Format.JPEG, result.getFormat());
+        }
+    }
+}
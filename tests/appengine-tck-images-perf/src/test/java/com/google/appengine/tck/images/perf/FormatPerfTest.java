@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.images.perf;
+
+import com.google.appengine.api.images.Image;
+import com.google.appengine.api.images.ImagesServiceFactory;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * applyTransform latency per input format, same picture.
+ */
+@RunWith(Arquillian.class)
+public class FormatPerfTest extends ImagesPerfTestBase {
+    private static final String[] FILES = {"capedwarf.jpg", "capedwarf.png", "capedwarf.gif", "capedwarf.bmp", "capedwarf.tif", "beach.tif"};
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Test
+    public void testRotateByFormat() throws Exception {
+        for (String file : FILES) {
+            byte[] data = readImageBytes(file);
+            Image result = benchmarkTransform("images.rotate." + file, data, ImagesServiceFactory.makeRotate(90));
+            assertRotated(data, result);
+        }
+    }
+
+    @Test
+    public void testResizeByFormat() throws Exception {
+        for (String file : FILES) {
+            Image result = benchmarkTransform("images.resize." + file, readImageBytes(file), ImagesServiceFactory.makeResize(100, 100));
+            assertResized(100, 100, result);
+        }
+    }
+
+    @Test
+    public void testImFeelingLuckyByFormat() throws Exception {
+        for (String file : FILES) {
+            byte[] data = readImageBytes(file);
+            Image original = ImagesServiceFactory.makeImage(data);
+            Image result = benchmarkTransform("images.lucky." + file, data, ImagesServiceFactory.makeImFeelingLucky());
+            assertSize(original.getWidth(), original.getHeight(), result);
+        }
+    }
+}
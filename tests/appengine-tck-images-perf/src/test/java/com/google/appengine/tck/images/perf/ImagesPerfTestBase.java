@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.images.perf;
+
+import java.util.logging.Logger;
+
+import com.google.appengine.api.images.Image;
+import com.google.appengine.api.images.ImagesService;
+import com.google.appengine.api.images.ImagesServiceFactory;
+import com.google.appengine.api.images.OutputSettings;
+import com.google.appengine.api.images.Transform;
+import com.google.appengine.tck.base.TestContext;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import com.google.appengine.tck.images.ImagesHelperTestBase;
+import com.google.appengine.tck.stats.Histogram;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Images benchmarks base.
+ * <p/>
+ * Besides latency, every benchmark logs the heap growth across each timed call as
+ * "HEAP name,iterations,p50,max" (in KB); it's a lower bound of the peak heap, as GC can run meanwhile.
+ */
+public abstract class ImagesPerfTestBase extends ImagesHelperTestBase {
+    private static final Logger log = Logger.getLogger(ImagesPerfTestBase.class.getName());
+
+    /**
+     * Max width / height accepted by resize.
+     */
+    protected static final int MAX_DIMENSION = 4000;
+
+    protected static WebArchive getPerfDeployment() {
+        TestContext context = new TestContext().setUseSystemProperties(true).setCompatibilityProperties(TCK_PROPERTIES);
+        WebArchive war = getHelperDeployment(getTckDeployment(context));
+        war.addClass(ImagesPerfTestBase.class);
+        war.addPackage(Benchmark.class.getPackage());
+        war.addClass(Histogram.class);
+        return war;
+    }
+
+    protected static int getIterations() {
+        return Integer.parseInt(getTestSystemProperty("tck.benchmark.iterations", "10"));
+    }
+
+    protected static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Upscale an image, keeping aspect ratio, within MAX_DIMENSION.
+     *
+     * @param data   the image bytes
+     * @param factor the scale factor
+     * @return upscaled image bytes, as PNG
+     */
+    protected byte[] upscale(byte[] data, int factor) {
+        Image image = ImagesServiceFactory.makeImage(data);
+        int width = Math.min(MAX_DIMENSION, image.getWidth() * factor);
+        int height = Math.min(MAX_DIMENSION, image.getHeight() * factor);
+        Transform resize = ImagesServiceFactory.makeResize(width, height);
+        return imagesService.applyTransform(resize, image, new OutputSettings(ImagesService.OutputEncoding.PNG)).getImageData();
+    }
+
+    protected static void assertSize(int width, int height, Image image) {
+        assertEquals("width", width, image.getWidth());
+        assertEquals("height", height, image.getHeight());
+    }
+
+    protected static void assertRotated(byte[] original, Image rotated) {
+        Image image = ImagesServiceFactory.makeImage(original);
+        assertSize(image.getHeight(), image.getWidth(), rotated);
+    }
+
+    /**
+     * Resize keeps aspect ratio, so the image fits the box and touches at least one side.
+     */
+    protected static void assertResized(int width, int height, Image resized) {
+        assertTrue("Too big: " + resized.getWidth() + "x" + resized.getHeight(), resized.getWidth() <= width && resized.getHeight() <= height);
+        assertTrue("Too small: " + resized.getWidth() + "x" + resized.getHeight(), resized.getWidth() == width || resized.getHeight() == height);
+    }
+
+    protected Image benchmarkTransform(String name, byte[] data, Transform transform) throws Exception {
+        return benchmarkTransform(name, data, transform, new OutputSettings(ImagesService.OutputEncoding.PNG));
+    }
+
+    protected Image benchmarkTransform(String name, final byte[] data, final Transform transform, final OutputSettings settings) throws Exception {
+        return benchmark(name, new ImageTask() {
+            private Image image;
+
+            protected void prepare(int iteration) {
+                // applyTransform modifies the image, so start from the original bytes every time
+                image = ImagesServiceFactory.makeImage(data);
+            }
+
+            protected Image apply(int iteration) {
+                return imagesService.applyTransform(transform, image, settings);
+            }
+        });
+    }
+
+    /**
+     * @return output of the last timed call
+     */
+    protected Image benchmark(String name, ImageTask task) throws Exception {
+        Benchmark.of(name).warmup(2).iterations(getIterations()).run(task);
+        Histogram heap = task.getHeap();
+        log.info(String.format("HEAP %s,%s,%s,%s", name, heap.getCount(), heap.getValueAtPercentile(50), heap.getMax()));
+        return task.getLast();
+    }
+
+    /**
+     * Times apply(), and tracks heap growth across it.
+     */
+    protected abstract static class ImageTask extends BenchmarkTask {
+        private final Histogram heap = new Histogram();
+        private long baseline;
+        private Image result;
+        private Image last;
+
+        public final void before(int iteration) throws Exception {
+            prepare(iteration);
+            baseline = usedHeap();
+        }
+
+        public final void run(int iteration) throws Exception {
+            result = apply(iteration);
+        }
+
+        public final void after(int iteration) throws Exception {
+            long used = usedHeap();
+            if (iteration >= 0) {
+                heap.record(Math.max(0L, used - baseline) / 1024);
+            }
+            assertTrue("Empty result", result.getImageData().length > 0);
+            last = result;
+            result = null;
+        }
+
+        protected void prepare(int iteration) throws Exception {
+        }
+
+        protected abstract Image apply(int iteration) throws Exception;
+
+        Histogram getHeap() {
+            return heap;
+        }
+
+        Image getLast() {
+            return last;
+        }
+    }
+}
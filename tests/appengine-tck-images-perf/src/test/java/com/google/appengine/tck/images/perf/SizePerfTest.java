@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.images.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.appengine.api.images.Image;
+import com.google.appengine.api.images.ImagesServiceFactory;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * applyTransform latency by image size; bigger inputs are upscaled from the corpus.
+ */
+@RunWith(Arquillian.class)
+public class SizePerfTest extends ImagesPerfTestBase {
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Test
+    public void testRotateBySize() throws Exception {
+        byte[] original = readImageBytes(CAPEDWARF_PNG);
+        for (int factor : factors(original)) {
+            byte[] data = (factor == 1) ? original : upscale(original, factor);
+            Image result = benchmarkTransform("images.rotate.x" + factor, data, ImagesServiceFactory.makeRotate(90));
+            assertRotated(data, result);
+        }
+    }
+
+    @Test
+    public void testResizeBySize() throws Exception {
+        byte[] original = readImageBytes(CAPEDWARF_PNG);
+        for (int factor : factors(original)) {
+            byte[] data = (factor == 1) ? original : upscale(original, factor);
+            Image result = benchmarkTransform("images.resize.x" + factor, data, ImagesServiceFactory.makeResize(200, 200));
+            assertResized(200, 200, result);
+        }
+    }
+
+    /**
+     * Power of two scale factors, while the upscaled image stays within MAX_DIMENSION.
+     */
+    private static List<Integer> factors(byte[] data) {
+        Image image = ImagesServiceFactory.makeImage(data);
+        int max = Math.max(image.getWidth(), image.getHeight());
+        List<Integer> factors = new ArrayList<>();
+        factors.add(1);
+        for (int factor = 2; max * factor <= MAX_DIMENSION; factor *= 2) {
+            factors.add(factor);
+        }
+        return factors;
+    }
+}
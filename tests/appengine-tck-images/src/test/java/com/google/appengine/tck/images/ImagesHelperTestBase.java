@@ -0,0 +1,140 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.images;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import com.google.appengine.api.images.Image;
+import com.google.appengine.api.images.ImagesService;
+import com.google.appengine.api.images.ImagesServiceFactory;
+import com.google.appengine.api.images.Transform;
+import com.google.appengine.tck.base.TestBase;
+import com.google.appengine.tck.base.TestContext;
+import com.google.appengine.tck.event.ImageLifecycleEvent;
+import com.google.appengine.tck.event.TestLifecycles;
+import com.google.appengine.tck.images.util.ImageRequest;
+import com.google.appengine.tck.util.IOUtils;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Assert;
+import org.junit.Before;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Images test helper.
+ *
+ * @author <a href="mailto:marko.luksa@gmail.com">Marko Luksa</a>
+ * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
+ */
+public abstract class ImagesHelperTestBase extends TestBase {
+    protected static final String CAPEDWARF_PNG = "capedwarf.png";
+
+    protected static final String[] TEST_FILES = {
+        "jpgAttach.jpg",
+        "pngAttach.png",
+        "bmpAttach.bmp",
+        "beach.tif",
+        "beachCrop.jpeg", "beachCrop.png",
+        "beachHorizontalFlip.jpeg", "beachHorizontalFlip.png",
+        "beachImFeelingLucky.jpeg", "beachImFeelingLucky.png",
+        "beachResize.jpeg", "beachResize.png",
+        "beachRotate.jpeg", "beachRotate.png",
+        "beachVerticalFlip.jpeg", "beachVerticalFlip.png",
+        "capedwarf.jpg", "capedwarf.png", "capedwarf.gif", "capedwarf.bmp", "capedwarf.tif"};
+
+    protected ImagesService imagesService;
+
+    protected static WebArchive getHelperDeployment() {
+        return getHelperDeployment(getTckDeployment(new TestContext()));
+    }
+
+    protected static WebArchive getHelperDeployment(WebArchive war) {
+        war.addClasses(ImagesHelperTestBase.class, ImageRequest.class);
+
+        for (String fName : TEST_FILES) {
+            war.addAsResource("testdata/" + fName, fName);
+        }
+
+        return war;
+    }
+
+    @Before
+    public void init() throws Exception {
+        imagesService = ImagesServiceFactory.getImagesService();
+    }
+
+    protected void assertImages(Transform transform, Image expected, Image transImg) {
+        ImageLifecycleEvent event = TestLifecycles.createImageLifecycleEvent(getClass(), transform, expected, transImg);
+        TestLifecycles.before(event);
+        Boolean result = event.result();
+
+        if (result == null) {
+            assertArrayEquals(expected.getImageData(), transImg.getImageData());
+        } else {
+            Assert.assertTrue("Images are not equal.", result);
+        }
+    }
+
+    protected InputStream getImageStream(String filename) throws IOException {
+        InputStream is = getClass().getClassLoader().getResourceAsStream(filename);
+        if (is == null) {
+            throw new IOException("No such resource: " + filename);
+        }
+        return is;
+    }
+
+    protected byte[] readImageBytes(String resourceName) throws IOException {
+        return toBytes(getImageStream(resourceName), true);
+    }
+
+    protected Image readImage(String filename) throws IOException {
+        return ImagesServiceFactory.makeImage(toByteArray(getImageStream(filename)));
+    }
+
+    protected static byte[] toBytes(InputStream is, boolean closeStream) throws IOException {
+        return IOUtils.toBytes(is, closeStream);
+    }
+
+    protected static byte[] toBytes(InputStream is, long start, long end, boolean closeStream)
+        throws IOException {
+        return IOUtils.toBytes(is, start, end, closeStream);
+    }
+
+    protected static long copy(InputStream from, OutputStream to) throws IOException {
+        try {
+            return IOUtils.copyStream(from, to);
+        } finally {
+            from.close();
+            to.close();
+        }
+    }
+
+    protected static byte[] toByteArray(InputStream in) throws IOException {
+        return IOUtils.toBytes(in, true);
+    }
+
+    protected static String toString(InputStream in) throws IOException {
+        return new String(toByteArray(in));
+    }
+
+    public static void copy(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        IOUtils.copy(in, out);
+    }
+}
@@ -15,6 +15,7 @@
 
 package com.google.appengine.tck.logservice;
 
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import com.google.appengine.api.log.LogService;
@@ -47,10 +48,11 @@ public class LogLevelTest extends LoggingTestBase {
         log.severe("severe_testLogLevelMatches");
         flush(log);
 
-        assertLogContains("finest_testLogLevelMatches", LogService.LogLevel.DEBUG);
-        assertLogContains("finer_testLogLevelMatches", LogService.LogLevel.DEBUG);
-        assertLogContains("fine_testLogLevelMatches", LogService.LogLevel.DEBUG);
-        assertLogContains("config_testLogLevelMatches", LogService.LogLevel.DEBUG);
+        assertLogContains(Arrays.asList(
+            "finest_testLogLevelMatches",
+            "finer_testLogLevelMatches",
+            "fine_testLogLevelMatches",
+            "config_testLogLevelMatches"), LogService.LogLevel.DEBUG);
 
         // we can't test the following on dev appserver, because it returns incorrect logLevels
         // more info at http://code.google.com/p/googleappengine/issues/detail?id=8651
@@ -15,7 +15,11 @@
 
 package com.google.appengine.tck.logservice;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Handler;
 import java.util.logging.Logger;
 
@@ -24,10 +28,13 @@ import com.google.appengine.api.log.LogQuery;
 import com.google.appengine.api.log.LogService;
 import com.google.appengine.api.log.LogServiceFactory;
 import com.google.appengine.api.log.RequestLogs;
+import com.google.appengine.tck.await.Await;
+import com.google.appengine.tck.await.Condition;
 import com.google.appengine.tck.base.TestBase;
 import com.google.appengine.tck.base.TestContext;
 import com.google.appengine.tck.event.TestLifecycleEvent;
 import com.google.appengine.tck.event.TestLifecycles;
+import com.google.appengine.tck.logservice.support.LogTailer;
 import com.google.apphosting.api.ApiProxy;
 import org.apache.commons.codec.BinaryDecoder;
 import org.apache.commons.codec.BinaryEncoder;
@@ -56,6 +63,8 @@ public abstract class LoggingTestBase extends TestBase {
     public static final String ENTITY_NAME = "TimeData";
     public static final String REQUEST_ID_PROPERTY = "requestId";
 
+    private static final long LOG_RETRY_PAUSE = 1500L;
+
     private boolean clearLogAfterEachTestMethod;
 
     public LoggingTestBase() {
@@ -74,6 +83,7 @@ public abstract class LoggingTestBase extends TestBase {
         context.setAppEngineWebXmlFile("appengine-web-with-logging-properties.xml");
         WebArchive war = getTckDeployment(context);
         war.addClasses(LoggingTestBase.class, TestBase.class)
+            .addPackage(LogTailer.class.getPackage())
             // classes for Base64.isBase64()
             .addClasses(Base64.class, BaseNCodec.class)
             .addClasses(BinaryEncoder.class, Encoder.class)
@@ -124,47 +134,93 @@ public abstract class LoggingTestBase extends TestBase {
     }
 
     protected boolean logContains(String text, int retryMax) {
-        for (int i = 0; i <= retryMax; i++) {
-            if (findLogLineContaining(text, retryMax) != null) {
-                return true;
-            }
-            pause(1500);
-        }
-        return false;
+        return findLogLineContaining(text, retryMax) != null;
     }
 
     protected AppLogLine findLogLineContaining(String text, int retryMax) {
-        LogQuery logQuery = new LogQuery()
+        return findLogLine(text, newLogQuery(), retryMax);
+    }
+
+    /**
+     * Find many texts, with a single pass over each new log record.
+     *
+     * @param texts    the texts
+     * @param retryMax the retries
+     * @return first matching line per found text
+     */
+    protected Map<String, AppLogLine> findLogLinesContaining(Collection<String> texts, int retryMax) {
+        return awaitLogLines(newLogTailer(texts), texts, retryMax);
+    }
+
+    protected LogTailer newLogTailer(Collection<String> texts) {
+        return new LogTailer(newLogQuery(), texts);
+    }
+
+    private static LogQuery newLogQuery() {
+        return new LogQuery()
             .includeAppLogs(true)
             .includeIncomplete(true)
                 // Not specifying start time causes test to time out since it searches
                 // all the logs.
             .startTimeMillis(System.currentTimeMillis() - (20 * 1000));
-        return findLogLine(text, logQuery, retryMax);
     }
 
-    protected Iterator<RequestLogs> findLogLine(LogQuery query, int retryMax) {
-        LogService service = LogServiceFactory.getLogService();
-        Iterator<RequestLogs> iterator = null;
-        for (int i = 0; i <= retryMax; i++) {
-            iterator = service.fetch(query).iterator();
-            if (iterator.hasNext()) {
-                return iterator;
+    /**
+     * Tail the log until the required texts are found, or retries run out.
+     *
+     * @param tailer   the tailer
+     * @param required the texts we wait for
+     * @param retryMax the retries
+     * @return first matching line per found text, which can include texts not required
+     */
+    protected Map<String, AppLogLine> awaitLogLines(final LogTailer tailer, final Collection<String> required, int retryMax) {
+        return awaitLogs(retryMax).poll(new Condition<Map<String, AppLogLine>>() {
+            public Map<String, AppLogLine> get() {
+                tailer.poll();
+                return tailer.getMatches();
             }
-            pause(1500);
-        }
-        return iterator;
+
+            @Override
+            public boolean isSatisfied(Map<String, AppLogLine> matches) {
+                return matches.keySet().containsAll(required);
+            }
+
+            @Override
+            public String toString() {
+                return tailer.toString();
+            }
+        });
     }
 
-    protected AppLogLine findLogLine(String text, LogQuery logQuery, int retryMax) {
-        for (int i = 0; i <= retryMax; i++) {
-            AppLogLine line = findLogLine(text, logQuery);
-            if (line != null) {
-                return line;
+    protected Iterator<RequestLogs> findLogLine(final LogQuery query, int retryMax) {
+        final LogService service = LogServiceFactory.getLogService();
+        return awaitLogs(retryMax).poll(new Condition<Iterator<RequestLogs>>() {
+            public Iterator<RequestLogs> get() {
+                return service.fetch(query).iterator();
             }
-            pause(1500);
-        }
-        return null;
+
+            @Override
+            public boolean isSatisfied(Iterator<RequestLogs> iterator) {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public String toString() {
+                return "RequestLogs[" + query + "]";
+            }
+        });
+    }
+
+    protected AppLogLine findLogLine(String text, LogQuery logQuery, int retryMax) {
+        Collection<String> texts = Collections.singleton(text);
+        return awaitLogLines(new LogTailer(logQuery, texts), texts, retryMax).get(text);
+    }
+
+    /**
+     * Retries used to be spaced by LOG_RETRY_PAUSE, keep the same overall budget.
+     */
+    private static Await awaitLogs(int retryMax) {
+        return Await.atMost((retryMax + 1) * LOG_RETRY_PAUSE, TimeUnit.MILLISECONDS);
     }
 
     protected AppLogLine findLogLine(String text, LogQuery logQuery) {
@@ -197,6 +253,18 @@ public abstract class LoggingTestBase extends TestBase {
         }
     }
 
+    protected void assertLogContains(Collection<String> texts, LogService.LogLevel logLevel) {
+        int retryMax = 4;
+        Map<String, AppLogLine> logLines = findLogLinesContaining(texts, retryMax);
+        for (String text : texts) {
+            AppLogLine logLine = logLines.get(text);
+            assertNotNull("log should contain '" + text + "', but it does not", logLine);
+            if (logLevel != null) {
+                assertEquals("incorrect logLevel for text '" + text + "'", logLevel, logLine.getLogLevel());
+            }
+        }
+    }
+
     protected void assertLogQueryReturns(String text, LogQuery logQuery) {
         AppLogLine logLine = findLogLine(text, logQuery);
         assertNotNull("logQuery should return '" + text + "', but it does not", logLine);
@@ -33,6 +33,7 @@ import com.google.appengine.api.log.LogQuery;
 import com.google.appengine.api.log.RequestLogs;
 import com.google.appengine.api.utils.SystemProperty;
 import com.google.appengine.tck.event.Property;
+import com.google.appengine.tck.util.IOUtils;
 import org.apache.commons.codec.binary.Base64;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.container.test.api.RunAsClient;
@@ -132,16 +133,7 @@ public class RequestLogsTest extends LoggingTestBase {
     }
 
     private String readFullyAndClose(InputStream in) throws IOException {
-        try {
-            StringBuilder sbuf = new StringBuilder();
-            int ch;
-            while ((ch = in.read()) != -1) {
-                sbuf.append((char) ch);
-            }
-            return sbuf.toString();
-        } finally {
-            in.close();
-        }
+        return IOUtils.toString(in, true);
     }
 
     private String performPostRequest(URL url) throws IOException {
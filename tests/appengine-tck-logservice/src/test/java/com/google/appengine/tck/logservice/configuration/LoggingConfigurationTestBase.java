@@ -15,17 +15,23 @@
 
 package com.google.appengine.tck.logservice.configuration;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.google.appengine.api.log.AppLogLine;
 import com.google.appengine.tck.base.TestContext;
 import com.google.appengine.tck.logservice.LoggingTestBase;
 import org.jboss.shrinkwrap.api.Archive;
 import org.jboss.shrinkwrap.api.asset.StringAsset;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 /**
  * @author Marko Luksa
  */
@@ -42,11 +48,23 @@ public abstract class LoggingConfigurationTestBase extends LoggingTestBase {
         }
         flush(log);
 
+        List<String> all = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
         for (Level level : LEVELS) {
+            String message = createMessage(level, start);
+            all.add(message);
             if (level.intValue() >= minLevel.intValue()) {
-                assertLogContains(createMessage(level, start));
+                expected.add(message);
+            }
+        }
+
+        // one tailer for all, so unexpected messages get checked in the same passes
+        Map<String, AppLogLine> logLines = awaitLogLines(newLogTailer(all), expected, 4);
+        for (String message : all) {
+            if (expected.contains(message)) {
+                assertTrue("log should contain '" + message + "', but it does not", logLines.containsKey(message));
             } else {
-                assertLogDoesntContain(createMessage(level, start));
+                assertFalse("log should not contain '" + message + "', but it does", logLines.containsKey(message));
             }
         }
     }
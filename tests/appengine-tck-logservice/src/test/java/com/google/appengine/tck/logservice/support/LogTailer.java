@@ -0,0 +1,178 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.logservice.support;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.appengine.api.log.AppLogLine;
+import com.google.appengine.api.log.LogQuery;
+import com.google.appengine.api.log.LogService;
+import com.google.appengine.api.log.LogServiceFactory;
+import com.google.appengine.api.log.RequestLogs;
+
+/**
+ * Incremental log search, for many texts at once.
+ * <p/>
+ * Each poll() only scans what previous polls have not seen: the query start time
+ * is moved forward, and already scanned app log lines are skipped per request id.
+ * Unfinished requests are kept in the window, since they can still get new lines.
+ */
+public class LogTailer {
+    // log records are not strictly ordered by start time, keep some overlap
+    private static final long SLACK_USEC = 2000 * 1000L;
+
+    private final LogService service;
+    private final LogQuery template;
+    private final MultiPatternMatcher matcher;
+    private final BitSet found = new BitSet();
+    private final Map<String, AppLogLine> matches = new LinkedHashMap<>();
+    // request id -> app log lines already scanned
+    private final Map<String, Scanned> scanned = new HashMap<>();
+    private Long watermark; // start time usec
+    private int polls;
+    private long records;
+
+    public LogTailer(LogQuery template, Collection<String> texts) {
+        this(LogServiceFactory.getLogService(), template, texts);
+    }
+
+    public LogTailer(LogService service, LogQuery template, Collection<String> texts) {
+        this.service = service;
+        this.template = template.clone().includeAppLogs(true);
+        this.matcher = new MultiPatternMatcher(new ArrayList<>(texts));
+        this.watermark = template.getStartTimeUsec();
+    }
+
+    /**
+     * Scan new log records.
+     *
+     * @return true if all texts were found
+     */
+    public boolean poll() {
+        if (isComplete()) {
+            return true;
+        }
+        polls++;
+
+        LogQuery query = template.clone();
+        if (watermark != null) {
+            query.startTimeUsec(watermark);
+        }
+
+        Long oldestUnfinished = null;
+        long newest = (watermark != null) ? watermark : 0L;
+        for (RequestLogs logs : service.fetch(query)) {
+            records++;
+            long start = logs.getStartTimeUsec();
+            newest = Math.max(newest, start);
+            if (logs.isFinished() == false) {
+                oldestUnfinished = (oldestUnfinished == null) ? start : Math.min(oldestUnfinished, start);
+            }
+
+            Scanned seen = scanned.get(logs.getRequestId());
+            if (seen == null) {
+                seen = new Scanned(start);
+                scanned.put(logs.getRequestId(), seen);
+            }
+            List<AppLogLine> lines = logs.getAppLogLines();
+            for (int i = seen.lines; i < lines.size(); i++) {
+                scan(lines.get(i));
+            }
+            seen.lines = Math.max(seen.lines, lines.size());
+
+            if (isComplete()) {
+                return true;
+            }
+        }
+
+        long next = ((oldestUnfinished != null) ? oldestUnfinished : newest) - SLACK_USEC;
+        if (watermark == null || next > watermark) {
+            watermark = next;
+            forget(next);
+        }
+        return false;
+    }
+
+    private void scan(AppLogLine line) {
+        BitSet hits = new BitSet();
+        if (matcher.match(line.getLogMessage(), hits) > 0) {
+            for (int p = hits.nextSetBit(0); p >= 0; p = hits.nextSetBit(p + 1)) {
+                if (found.get(p) == false) {
+                    found.set(p);
+                    matches.put(matcher.getPatterns().get(p), line);
+                }
+            }
+        }
+    }
+
+    private void forget(long before) {
+        Iterator<Scanned> iterator = scanned.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().start < before) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public boolean isComplete() {
+        return found.cardinality() == matcher.size();
+    }
+
+    public boolean containsAll(Collection<String> texts) {
+        return matches.keySet().containsAll(texts);
+    }
+
+    /**
+     * First matching line per found text.
+     */
+    public Map<String, AppLogLine> getMatches() {
+        return Collections.unmodifiableMap(matches);
+    }
+
+    public AppLogLine getMatch(String text) {
+        return matches.get(text);
+    }
+
+    public int getPolls() {
+        return polls;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LogTailer[found %s/%s, polls=%s, records=%s]", matches.size(), matcher.size(), polls, records);
+    }
+
+    private static class Scanned {
+        private final long start;
+        private int lines;
+
+        private Scanned(long start) {
+            this.start = start;
+        }
+    }
+}
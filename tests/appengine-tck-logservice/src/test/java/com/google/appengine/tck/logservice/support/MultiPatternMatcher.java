@@ -0,0 +1,158 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.logservice.support;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick matcher; finds any number of literal patterns in one pass over the text.
+ */
+public class MultiPatternMatcher {
+    private static final int ROOT = 0;
+
+    private final List<String> patterns;
+    // (state << 16 | char) -> next state
+    private final Map<Long, Integer> transitions = new HashMap<>();
+    private int[] failure;
+    private int[] dictionary; // nearest suffix state which ends a pattern, -1 if none
+    private int[][] outputs;
+    private int states = 1;
+
+    public MultiPatternMatcher(List<String> patterns) {
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("No patterns!");
+        }
+        this.patterns = new ArrayList<>(patterns);
+
+        List<List<Integer>> ends = new ArrayList<>();
+        ends.add(new ArrayList<Integer>());
+        for (int p = 0; p < this.patterns.size(); p++) {
+            String pattern = this.patterns.get(p);
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern!");
+            }
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = transitions.get(key(state, pattern.charAt(i)));
+                if (next == null) {
+                    next = states++;
+                    transitions.put(key(state, pattern.charAt(i)), next);
+                    ends.add(new ArrayList<Integer>());
+                }
+                state = next;
+            }
+            ends.get(state).add(p);
+        }
+
+        outputs = new int[states][];
+        for (int s = 0; s < states; s++) {
+            List<Integer> list = ends.get(s);
+            outputs[s] = new int[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                outputs[s][i] = list.get(i);
+            }
+        }
+        buildLinks();
+    }
+
+    private static long key(int state, char c) {
+        return ((long) state << 16) | c;
+    }
+
+    private void buildLinks() {
+        failure = new int[states];
+        dictionary = new int[states];
+        dictionary[ROOT] = -1;
+
+        // children by parent, for the breadth first walk
+        List<List<long[]>> children = new ArrayList<>(states);
+        for (int s = 0; s < states; s++) {
+            children.add(new ArrayList<long[]>());
+        }
+        for (Map.Entry<Long, Integer> entry : transitions.entrySet()) {
+            long k = entry.getKey();
+            children.get((int) (k >>> 16)).add(new long[]{k & 0xFFFF, entry.getValue()});
+        }
+
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = ROOT;
+        while (head < tail) {
+            int parent = queue[head++];
+            for (long[] child : children.get(parent)) {
+                char c = (char) child[0];
+                int state = (int) child[1];
+                int f = ROOT;
+                if (parent != ROOT) {
+                    f = next(failure[parent], c);
+                }
+                failure[state] = f;
+                dictionary[state] = (outputs[f].length > 0) ? f : dictionary[f];
+                queue[tail++] = state;
+            }
+        }
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            Integer next = transitions.get(key(state, c));
+            if (next != null) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = failure[state];
+        }
+    }
+
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    /**
+     * Find patterns in text.
+     *
+     * @param text  the text
+     * @param found indexes of found patterns are set here
+     * @return number of newly found patterns
+     */
+    public int match(CharSequence text, BitSet found) {
+        int count = 0;
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+            for (int s = state; s > ROOT; s = dictionary[s]) {
+                for (int p : outputs[s]) {
+                    if (!found.get(p)) {
+                        found.set(p);
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.memcache.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import com.google.appengine.api.memcache.AsyncMemcacheService;
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Sequential MemcacheService calls vs. concurrent AsyncMemcacheService calls.
+ */
+@RunWith(Arquillian.class)
+public class AsyncPerfTest extends MemcachePerfTestBase {
+    private static final int CALLS = 50;
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Test
+    public void testSyncPutGet() throws Exception {
+        final Map<Object, Object> data = createSmallBatchData(CALLS);
+        Benchmark.of("memcache.putget.sync").warmup(2).iterations(10).operations(2 * CALLS).run(new BenchmarkTask() {
+            public void run(int iteration) {
+                for (Map.Entry<Object, Object> entry : data.entrySet()) {
+                    memcache.put(entry.getKey(), entry.getValue());
+                }
+                for (Map.Entry<Object, Object> entry : data.entrySet()) {
+                    assertEquals(entry.getValue(), memcache.get(entry.getKey()));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testAsyncPutGet() throws Exception {
+        final AsyncMemcacheService async = MemcacheServiceFactory.getAsyncMemcacheService();
+        final Map<Object, Object> data = createSmallBatchData(CALLS);
+        Benchmark.of("memcache.putget.async").warmup(2).iterations(10).operations(2 * CALLS).run(new BenchmarkTask() {
+            public void run(int iteration) throws Exception {
+                List<Future<?>> futures = new ArrayList<>(CALLS);
+                for (Map.Entry<Object, Object> entry : data.entrySet()) {
+                    futures.add(async.put(entry.getKey(), entry.getValue()));
+                }
+                waitAll(futures);
+                List<Future<Object>> gets = new ArrayList<>(CALLS);
+                for (Object key : data.keySet()) {
+                    gets.add(async.get(key));
+                }
+                int i = 0;
+                for (Object value : data.values()) {
+                    assertEquals(value, gets.get(i++).get());
+                }
+            }
+        });
+    }
+
+    private static void waitAll(List<Future<?>> futures) throws Exception {
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        futures.clear();
+    }
+}
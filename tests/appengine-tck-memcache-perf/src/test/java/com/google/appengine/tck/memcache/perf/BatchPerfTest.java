@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.memcache.perf;
+
+import java.util.Map;
+
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * put/get vs. putAll/getAll, at increasing batch sizes.
+ */
+@RunWith(Arquillian.class)
+public class BatchPerfTest extends MemcachePerfTestBase {
+    private static final int[] BATCH_SIZES = {1, 10, 100, 1000};
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Test
+    public void testSinglePutGet() throws Exception {
+        for (int size : BATCH_SIZES) {
+            final Map<Object, Object> data = createSmallBatchData(size);
+            Benchmark.of("memcache.put.single." + size).warmup(2).iterations(10).operations(size).run(new BenchmarkTask() {
+                public void run(int iteration) {
+                    for (Map.Entry<Object, Object> entry : data.entrySet()) {
+                        memcache.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            });
+            assertEquals(data, memcache.getAll(data.keySet()));
+
+            Benchmark.of("memcache.get.single." + size).warmup(2).iterations(10).operations(size).run(new BenchmarkTask() {
+                public void run(int iteration) {
+                    for (Map.Entry<Object, Object> entry : data.entrySet()) {
+                        assertEquals(entry.getValue(), memcache.get(entry.getKey()));
+                    }
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testBatchPutGet() throws Exception {
+        for (int size : BATCH_SIZES) {
+            final Map<Object, Object> data = createSmallBatchData(size);
+            Benchmark.of("memcache.putAll." + size).warmup(2).iterations(10).operations(size).run(new BenchmarkTask() {
+                public void run(int iteration) {
+                    memcache.putAll(data);
+                }
+            });
+            assertEquals(data, memcache.getAll(data.keySet()));
+
+            Benchmark.of("memcache.getAll." + size).warmup(2).iterations(10).operations(size).run(new BenchmarkTask() {
+                public void run(int iteration) {
+                    assertEquals(data.size(), memcache.getAll(data.keySet()).size());
+                }
+            });
+        }
+    }
+}
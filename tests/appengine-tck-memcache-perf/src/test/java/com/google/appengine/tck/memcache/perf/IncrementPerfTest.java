@@ -0,0 +1,67 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.memcache.perf;
+
+import java.util.Map;
+
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * increment / incrementAll from concurrent request threads; also checks no increment is lost.
+ */
+@RunWith(Arquillian.class)
+public class IncrementPerfTest extends MemcachePerfTestBase {
+    private static final int ITERATIONS = 200;
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Test
+    public void testConcurrentIncrement() throws Exception {
+        final String key = createTimeStampKey("counter");
+        memcache.put(key, 0L);
+        Benchmark.of("memcache.increment.threads." + getThreads()).warmup(0).iterations(ITERATIONS).threads(getThreads()).run(new BenchmarkTask() {
+            public void run(int iteration) {
+                memcache.increment(key, 1L);
+            }
+        });
+        assertEquals((long) ITERATIONS, memcache.get(key));
+    }
+
+    @Test
+    public void testConcurrentIncrementAll() throws Exception {
+        final Map<Object, Long> data = createLongBatchData(10);
+        memcache.putAll(data);
+        Benchmark.of("memcache.incrementAll.threads." + getThreads()).warmup(0).iterations(ITERATIONS).operations(data.size()).threads(getThreads()).run(new BenchmarkTask() {
+            public void run(int iteration) {
+                memcache.incrementAll(data.keySet(), 1L);
+            }
+        });
+        for (Map.Entry<Object, Long> entry : data.entrySet()) {
+            assertEquals(entry.getValue() + ITERATIONS, memcache.get(entry.getKey()));
+        }
+    }
+}
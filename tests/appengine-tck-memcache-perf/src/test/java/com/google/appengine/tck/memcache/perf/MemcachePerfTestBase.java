@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.memcache.perf;
+
+import com.google.appengine.api.memcache.MemcacheService;
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
+import com.google.appengine.tck.base.TestContext;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.memcache.CacheHelperTestBase;
+import com.google.appengine.tck.stats.Histogram;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Before;
+
+/**
+ * Memcache benchmarks base.
+ * <p/>
+ * Concurrent benchmarks use -Dtck.benchmark.threads (default 4) request threads.
+ */
+public abstract class MemcachePerfTestBase extends CacheHelperTestBase {
+    protected MemcacheService memcache;
+
+    protected static WebArchive getPerfDeployment() {
+        TestContext context = new TestContext().setUseSystemProperties(true).setCompatibilityProperties(TCK_PROPERTIES);
+        WebArchive war = getHelperDeployment(getTckDeployment(context));
+        war.addClass(MemcachePerfTestBase.class);
+        war.addPackage(Benchmark.class.getPackage());
+        war.addClass(Histogram.class);
+        return war;
+    }
+
+    protected static int getThreads() {
+        return Integer.parseInt(getTestSystemProperty("tck.benchmark.threads", "4"));
+    }
+
+    @Before
+    public void setUp() {
+        memcache = MemcacheServiceFactory.getMemcacheService();
+        memcache.clearAll();
+    }
+
+    @After
+    public void tearDown() {
+        memcache.clearAll();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.memcache.perf;
+
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * put / get latency by value size, up to the 1MB limit.
+ */
+@RunWith(Arquillian.class)
+public class ValueSizePerfTest extends MemcachePerfTestBase {
+    private static final String[] VALUES = {str1K, getBigString(10 * 1024), getBigString(100 * 1024), str1mb};
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Test
+    public void testPutGetBySize() throws Exception {
+        for (final String value : VALUES) {
+            final String key = createTimeStampKey("size-" + value.length());
+            Benchmark.of("memcache.put.size." + value.length()).warmup(2).iterations(10).run(new BenchmarkTask() {
+                public void run(int iteration) {
+                    memcache.put(key, value);
+                }
+            });
+            assertEquals(value, memcache.get(key));
+
+            Benchmark.of("memcache.get.size." + value.length()).warmup(2).iterations(10).run(new BenchmarkTask() {
+                public void run(int iteration) {
+                    String cached = (String) memcache.get(key);
+                    assertEquals(value.length(), cached.length());
+                }
+            });
+        }
+    }
+}
@@ -26,6 +26,7 @@ import com.google.appengine.api.memcache.AsyncMemcacheService;
 import com.google.appengine.api.memcache.Expiration;
 import com.google.appengine.api.memcache.MemcacheService;
 import com.google.appengine.api.memcache.MemcacheServiceFactory;
+import com.google.appengine.tck.await.Condition;
 import com.google.appengine.tck.base.TestBase;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.junit.Arquillian;
@@ -82,7 +83,7 @@ public class MemcacheAsyncTest extends TestBase {
         unwrap(service.put("key3", "value3"));
 
         service.clearAll();
-        sync();
+        sync(absent("key1", "key2", "key3"));
 
         assertFalse(unwrap(service.contains("key1")));
         assertFalse(unwrap(service.contains("key2")));
@@ -256,7 +257,7 @@ public class MemcacheAsyncTest extends TestBase {
     public void testPutExpiration() {
         unwrap(service.put("key", "value", Expiration.byDeltaMillis(1000)));
         assertTrue(unwrap(service.contains("key")));
-        sync();
+        sync(absent("key"));
         assertFalse(unwrap(service.contains("key")));
     }
 
@@ -269,7 +270,7 @@ public class MemcacheAsyncTest extends TestBase {
         unwrap(service.putAll(map, Expiration.byDeltaMillis(1000)));
         assertTrue(unwrap(service.contains("key1")));
         assertTrue(unwrap(service.contains("key2")));
-        sync();
+        sync(absent("key1", "key2"));
         assertFalse(unwrap(service.contains("key1")));
         assertFalse(unwrap(service.contains("key2")));
     }
@@ -324,4 +325,27 @@ public class MemcacheAsyncTest extends TestBase {
         assertEquals(20L, x);
         assertEquals(20L, unwrap(service.get("long-key")));
     }
+
+    private Condition<Boolean> absent(final Object... keys) {
+        return new Condition<Boolean>() {
+            public Boolean get() {
+                for (Object key : keys) {
+                    if (unwrap(service.contains(key))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isSatisfied(Boolean value) {
+                return value;
+            }
+
+            @Override
+            public String toString() {
+                return "absent " + Arrays.toString(keys);
+            }
+        };
+    }
 }
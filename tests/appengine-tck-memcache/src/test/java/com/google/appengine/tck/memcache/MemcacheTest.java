@@ -23,6 +23,7 @@ import java.util.Set;
 import com.google.appengine.api.memcache.Expiration;
 import com.google.appengine.api.memcache.MemcacheService;
 import com.google.appengine.api.memcache.MemcacheServiceFactory;
+import com.google.appengine.tck.await.Condition;
 import org.jboss.arquillian.junit.Arquillian;
 import org.junit.After;
 import org.junit.Before;
@@ -231,7 +232,7 @@ public class MemcacheTest extends CacheTestBase {
         assertEquals(NEW_VALUE, memcache.get(TS_KEY));
 
         // Value should not be stored after expiration period.
-        sync(3000);
+        sync(3000, absent(TS_KEY));
         assertNull(memcache.get(TS_KEY));
     }
 
@@ -253,7 +254,7 @@ public class MemcacheTest extends CacheTestBase {
         assertEquals(2, set.size());
         assertEquals("new value", memcache.get(testDat[0]));
 
-        sync(3000);
+        sync(3000, absent(testDat));
         assertNull(memcache.get(testDat));
     }
 
@@ -321,7 +322,7 @@ public class MemcacheTest extends CacheTestBase {
     public void testPutExpiration() {
         memcache.put("key", "value", Expiration.byDeltaMillis(1000));
         assertTrue(memcache.contains("key"));
-        sync();
+        sync(absent("key"));
         assertFalse(memcache.contains("key"));
     }
 
@@ -334,7 +335,7 @@ public class MemcacheTest extends CacheTestBase {
         memcache.putAll(map, Expiration.byDeltaMillis(1000));
         assertTrue(memcache.contains("key1"));
         assertTrue(memcache.contains("key2"));
-        sync();
+        sync(absent("key1", "key2"));
         assertFalse(memcache.contains("key1"));
         assertFalse(memcache.contains("key2"));
     }
@@ -483,4 +484,27 @@ public class MemcacheTest extends CacheTestBase {
         assertNull("This key should not exist in the other namespace.", otherMemcache.get(key2));
         assertNotNull(memcache.get(key2));
     }
+
+    private Condition<Boolean> absent(final Object... keys) {
+        return new Condition<Boolean>() {
+            public Boolean get() {
+                for (Object key : keys) {
+                    if (memcache.contains(key)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public boolean isSatisfied(Boolean value) {
+                return value;
+            }
+
+            @Override
+            public String toString() {
+                return "absent " + Arrays.toString(keys);
+            }
+        };
+    }
 }
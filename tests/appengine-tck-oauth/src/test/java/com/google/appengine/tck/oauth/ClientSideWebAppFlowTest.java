@@ -29,12 +29,12 @@ import com.google.appengine.api.oauth.OAuthService;
 import com.google.appengine.api.oauth.OAuthServiceFactory;
 import com.google.appengine.tck.event.Property;
 import com.google.appengine.tck.oauth.support.OAuthServletAnswer;
+import com.google.appengine.tck.util.HttpClientFactory;
 import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URLEncodedUtils;
-import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.util.EntityUtils;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.container.test.api.RunAsClient;
@@ -107,14 +107,12 @@ public class ClientSideWebAppFlowTest extends OAuthTestBase {
             oAuthService = OAuthServiceFactory.getOAuthService();
         }
 
-        client = new DefaultHttpClient();
+        client = HttpClientFactory.newClient();
     }
 
     @After
     public void tearDown() {
-        if (client != null) {
-            client.getConnectionManager().shutdown();
-        }
+        client = null;
     }
 
     @Test
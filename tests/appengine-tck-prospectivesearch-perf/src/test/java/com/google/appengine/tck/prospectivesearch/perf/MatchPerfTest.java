@@ -0,0 +1,174 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.prospectivesearch.perf;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.prospectivesearch.FieldType;
+import com.google.appengine.api.prospectivesearch.Subscription;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import com.google.appengine.tck.prospectivesearch.ProspectiveTestBase;
+import com.google.appengine.tck.prospectivesearch.support.MatchReceipts;
+import com.google.appengine.tck.stats.Histogram;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Subscription throughput, and match to callback latency by fan-out.
+ * <p/>
+ * Every subscription matches "title:wordN" (one of WORDS) or "body:everyone",
+ * so a narrow document matches 1/WORDS of the subscriptions and a wide one all of them.
+ * Besides latency, match benchmarks log the number of subscription ids per callback
+ * as "BATCH name,callbacks,p50,max".
+ */
+@RunWith(Arquillian.class)
+public class MatchPerfTest extends ProspectiveTestBase {
+    private static final Logger log = Logger.getLogger(MatchPerfTest.class.getName());
+
+    private static final String PERF_TOPIC = "perfTopic";
+    private static final String RESULT_URI = "/_ah/prospective_search";
+    private static final int WORDS = 10;
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        WebArchive war = getBaseDeployment();
+        war.addClass(MatchPerfTest.class);
+        war.addPackage(Benchmark.class.getPackage());
+        war.addClass(Histogram.class);
+        return war;
+    }
+
+    @After
+    public void cleanUp() {
+        List<Subscription> subscriptions;
+        while ((subscriptions = service.listSubscriptions(PERF_TOPIC)).isEmpty() == false) {
+            for (Subscription subscription : subscriptions) {
+                service.unsubscribe(PERF_TOPIC, subscription.getId());
+            }
+        }
+    }
+
+    private static int getIntProperty(String key, String defaultValue) {
+        return Integer.parseInt(getTestSystemProperty(key, defaultValue));
+    }
+
+    private void subscribe(int i, Map<String, FieldType> schema) {
+        service.subscribe(PERF_TOPIC, "sub" + i, 0, "title:word" + (i % WORDS) + " OR body:everyone", schema);
+    }
+
+    /**
+     * Ids of all perf subscriptions, listed in pages.
+     */
+    private Set<String> listSubscriptionIds() {
+        Set<String> ids = new HashSet<>();
+        String start = "";
+        while (true) {
+            List<Subscription> page = service.listSubscriptions(PERF_TOPIC, start, 1000, 0);
+            int before = ids.size();
+            for (Subscription subscription : page) {
+                ids.add(subscription.getId());
+                start = subscription.getId();
+            }
+            // start is inclusive, stop once a page brings nothing new
+            if (page.size() < 1000 || ids.size() == before) {
+                return ids;
+            }
+        }
+    }
+
+    @Test
+    public void testSubscribe() throws Exception {
+        final int count = getIntProperty("tck.prospective.subscriptions", "1000");
+        final Map<String, FieldType> schema = createSchema("title", FieldType.STRING, "body", FieldType.STRING);
+        Benchmark.of("prospective.subscribe").warmup(0).iterations(count).run(new BenchmarkTask() {
+            public void run(int iteration) {
+                subscribe(iteration, schema);
+            }
+        });
+
+        Set<String> ids = listSubscriptionIds();
+        assertEquals(count, ids.size());
+        assertTrue(ids.contains("sub0"));
+        assertTrue(ids.contains("sub" + (count - 1)));
+    }
+
+    @Test
+    public void testMatch() throws Exception {
+        int count = getIntProperty("tck.prospective.subscriptions", "1000");
+        Map<String, FieldType> schema = createSchema("title", FieldType.STRING, "body", FieldType.STRING);
+        for (int i = 0; i < count; i++) {
+            subscribe(i, schema);
+        }
+
+        benchmarkMatch("narrow", articleWithTitleAndBody("word0", "nobody"), (count + WORDS - 1) / WORDS);
+        benchmarkMatch("wide", articleWithTitleAndBody("nothing", "everyone"), count);
+    }
+
+    private void benchmarkMatch(final String fanout, final Entity document, int expected) throws Exception {
+        final int documents = getIntProperty("tck.prospective.documents", "20");
+        final int batchSize = getIntProperty("tck.prospective.batch.size", "100");
+        final MatchReceipts receipts = MatchReceipts.start(documents);
+        try {
+            final long start = System.nanoTime();
+            Benchmark.of("prospective.match.send." + fanout).warmup(0).iterations(documents).run(new BenchmarkTask() {
+                public void run(int iteration) {
+                    String key = receipts.sent(fanout + "-" + iteration);
+                    service.match(document, PERF_TOPIC, key, RESULT_URI, "default", batchSize, false);
+                }
+            });
+            boolean delivered = receipts.await(getIntProperty("tck.prospective.timeout", "120"), TimeUnit.SECONDS);
+            long elapsed = System.nanoTime() - start;
+
+            // receipt latencies are in millis, histograms in micros
+            Histogram first = new Histogram();
+            Histogram last = new Histogram();
+            Histogram batches = new Histogram();
+            for (MatchReceipts.Receipt receipt : receipts.getReceipts()) {
+                if (receipt.getFirstLatency() >= 0) {
+                    first.record(receipt.getFirstLatency() * 1000);
+                }
+                if (receipt.isComplete()) {
+                    last.record(receipt.getLastLatency() * 1000);
+                    assertEquals(expected, receipt.getReceived());
+                }
+                for (int ids : receipt.getBatches()) {
+                    batches.record(ids);
+                }
+            }
+            Benchmark.report("prospective.match.first." + fanout, 1, first, elapsed);
+            Benchmark.report("prospective.match.last." + fanout, 1, last, elapsed);
+            log.info(String.format("BATCH %s,%s,%s,%s", "prospective.match." + fanout, batches.getCount(), batches.getValueAtPercentile(50), batches.getMax()));
+
+            assertTrue(String.format("%s of %s documents not fully delivered", receipts.getPending(), documents), delivered);
+        } finally {
+            receipts.stop();
+        }
+    }
+}
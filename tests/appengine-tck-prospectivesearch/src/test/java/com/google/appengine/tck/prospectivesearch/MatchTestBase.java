@@ -55,19 +55,6 @@ public abstract class MatchTestBase extends ProspectiveTestBase {
         }
     }
 
-    protected Entity articleWithTitle(String title) {
-        Entity entity = new Entity("article");
-        entity.setProperty("title", title);
-        return entity;
-    }
-
-    protected Entity articleWithTitleAndBody(String title, String body) {
-        Entity entity = new Entity("article");
-        entity.setProperty("title", title);
-        entity.setProperty("body", body);
-        return entity;
-    }
-
     protected void assertServletWasInvokedWith(Entity entity) throws Exception {
         waitForSync();
 
@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.google.appengine.api.datastore.Entity;
 import com.google.appengine.api.prospectivesearch.FieldType;
 import com.google.appengine.api.prospectivesearch.ProspectiveSearchService;
 import com.google.appengine.api.prospectivesearch.ProspectiveSearchServiceFactory;
@@ -28,6 +29,7 @@ import com.google.appengine.api.prospectivesearch.Subscription;
 import com.google.appengine.tck.base.TestBase;
 import com.google.appengine.tck.base.TestContext;
 import com.google.appengine.tck.prospectivesearch.support.InvocationData;
+import com.google.appengine.tck.prospectivesearch.support.MatchReceipts;
 import com.google.appengine.tck.prospectivesearch.support.MatchResponseServlet;
 import com.google.appengine.tck.prospectivesearch.support.Ping;
 import com.google.appengine.tck.prospectivesearch.support.SpecialMatchResponseServlet;
@@ -58,6 +60,7 @@ public abstract class ProspectiveTestBase extends TestBase {
         war.addClasses(ProspectiveTestBase.class);
         war.addClasses(MatchResponseServlet.class, SpecialMatchResponseServlet.class);
         war.addClasses(InvocationData.class, Ping.class);
+        war.addClass(MatchReceipts.class);
         return war;
     }
 
@@ -90,6 +93,19 @@ public abstract class ProspectiveTestBase extends TestBase {
         });
     }
 
+    protected Entity articleWithTitle(String title) {
+        Entity entity = new Entity("article");
+        entity.setProperty("title", title);
+        return entity;
+    }
+
+    protected Entity articleWithTitleAndBody(String title, String body) {
+        Entity entity = new Entity("article");
+        entity.setProperty("title", title);
+        entity.setProperty("body", body);
+        return entity;
+    }
+
     protected Map<String, FieldType> createSchema(String field, FieldType type) {
         Map<String, FieldType> schema = new HashMap<>();
         schema.put(field, type);
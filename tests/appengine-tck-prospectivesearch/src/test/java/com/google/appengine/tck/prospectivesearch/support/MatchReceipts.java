@@ -0,0 +1,235 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.prospectivesearch.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
+
+/**
+ * Timestamped receipt of match callbacks, per run.
+ * <p/>
+ * Documents are tracked by their match result key; a document is complete
+ * once all of its results_count subscription ids were delivered, possibly in several batches.
+ * Callbacks are stored in datastore, as they can be delivered to any instance,
+ * and times are wall clock millis, so they compare across instances.
+ */
+public class MatchReceipts {
+    private static final String PREFIX = "receipts-";
+    private static final long POLL_INTERVAL = 500;
+
+    private static final String KIND = "MatchReceipt";
+    private static final String RUN = "run";
+    private static final String KEY = "key";
+    private static final String RESULTS_COUNT = "resultsCount";
+    private static final String IDS = "ids";
+    private static final String RECEIVED = "received";
+
+    private final String run;
+    private final int documents;
+    private final ConcurrentMap<String, Long> sent = new ConcurrentHashMap<>();
+    private volatile Map<String, Receipt> receipts = new HashMap<>();
+
+    private MatchReceipts(String run, int documents) {
+        this.run = run;
+        this.documents = documents;
+    }
+
+    /**
+     * Start tracking callbacks of a new run.
+     *
+     * @param documents the number of documents we expect to be fully delivered
+     * @return new receipts
+     */
+    public static MatchReceipts start(int documents) {
+        return new MatchReceipts(PREFIX + UUID.randomUUID(), documents);
+    }
+
+    /**
+     * Record a callback, if its key belongs to a run.
+     *
+     * @param key          the match result key
+     * @param resultsCount the total number of matching subscriptions
+     * @param ids          the number of subscription ids in this batch
+     * @param millis       receipt time, from System.currentTimeMillis()
+     */
+    static void record(String key, long resultsCount, int ids, long millis) {
+        if (key == null || key.startsWith(PREFIX) == false) {
+            return;
+        }
+        Entity callback = new Entity(KIND);
+        callback.setProperty(RUN, key.substring(0, key.indexOf('/')));
+        callback.setUnindexedProperty(KEY, key);
+        callback.setUnindexedProperty(RESULTS_COUNT, resultsCount);
+        callback.setUnindexedProperty(IDS, ids);
+        callback.setUnindexedProperty(RECEIVED, millis);
+        DatastoreServiceFactory.getDatastoreService().put(callback);
+    }
+
+    private Query runQuery() {
+        return new Query(KIND).setFilter(new FilterPredicate(RUN, FilterOperator.EQUAL, run));
+    }
+
+    /**
+     * Mark the document as sent.
+     *
+     * @param name the document name, unique within this run
+     * @return the match result key to use
+     */
+    public String sent(String name) {
+        String key = run + "/" + name;
+        sent.put(key, System.currentTimeMillis());
+        return key;
+    }
+
+    /**
+     * Reload the callbacks stored so far; eventually consistent.
+     */
+    public void refresh() {
+        Map<String, Receipt> loaded = new HashMap<>();
+        DatastoreService ds = DatastoreServiceFactory.getDatastoreService();
+        for (Entity callback : ds.prepare(runQuery()).asIterable(FetchOptions.Builder.withChunkSize(500))) {
+            String key = (String) callback.getProperty(KEY);
+            Receipt receipt = loaded.get(key);
+            if (receipt == null) {
+                Long time = sent.get(key);
+                receipt = new Receipt(time != null ? time : 0);
+                loaded.put(key, receipt);
+            }
+            receipt.received((Long) callback.getProperty(RESULTS_COUNT), ((Long) callback.getProperty(IDS)).intValue(), (Long) callback.getProperty(RECEIVED));
+        }
+        receipts = loaded;
+    }
+
+    /**
+     * Poll until all documents are fully delivered.
+     *
+     * @param timeout the max time to wait
+     * @param unit    the timeout unit
+     * @return true if all documents were delivered in time
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        while (true) {
+            refresh();
+            if (getPending() == 0) {
+                return true;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(POLL_INTERVAL);
+        }
+    }
+
+    /**
+     * Documents not fully delivered, as of the last refresh.
+     */
+    public long getPending() {
+        long complete = 0;
+        for (Receipt receipt : receipts.values()) {
+            if (receipt.isComplete()) {
+                complete++;
+            }
+        }
+        return Math.max(0, documents - complete);
+    }
+
+    public Collection<Receipt> getReceipts() {
+        return receipts.values();
+    }
+
+    /**
+     * Delete this run's callbacks.
+     */
+    public void stop() {
+        DatastoreService ds = DatastoreServiceFactory.getDatastoreService();
+        List<Key> keys = new ArrayList<>();
+        for (Entity callback : ds.prepare(runQuery().setKeysOnly()).asIterable()) {
+            keys.add(callback.getKey());
+        }
+        for (int i = 0; i < keys.size(); i += 500) {
+            ds.delete(keys.subList(i, Math.min(i + 500, keys.size())));
+        }
+    }
+
+    public static class Receipt {
+        private final long sent;
+        private long first;
+        private long last;
+        private long received;
+        private long total = -1;
+        private final List<Integer> batches = new ArrayList<>();
+
+        private Receipt(long sent) {
+            this.sent = sent;
+        }
+
+        private void received(long resultsCount, int ids, long millis) {
+            if (first == 0 || millis < first) {
+                first = millis;
+            }
+            last = Math.max(last, millis);
+            received += ids;
+            total = resultsCount;
+            batches.add(ids);
+        }
+
+        public boolean isComplete() {
+            return total >= 0 && received >= total;
+        }
+
+        /**
+         * Match call to first callback, in millis; -1 if unknown.
+         */
+        public long getFirstLatency() {
+            return (sent > 0 && first > 0) ? first - sent : -1;
+        }
+
+        /**
+         * Match call to last callback, in millis; -1 if unknown.
+         */
+        public long getLastLatency() {
+            return (sent > 0 && last > 0) ? last - sent : -1;
+        }
+
+        public long getReceived() {
+            return received;
+        }
+
+        /**
+         * Subscription ids per callback.
+         */
+        public List<Integer> getBatches() {
+            return new ArrayList<>(batches);
+        }
+    }
+}
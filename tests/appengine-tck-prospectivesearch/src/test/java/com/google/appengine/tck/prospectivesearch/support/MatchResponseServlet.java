@@ -35,6 +35,7 @@ public class MatchResponseServlet extends HttpServlet {
 
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        final long received = System.currentTimeMillis();
         InvocationData invocationData = new InvocationData();
         invocationData.key = request.getParameter("key");
         invocationData.topic = request.getParameter("topic");
@@ -42,6 +43,7 @@ public class MatchResponseServlet extends HttpServlet {
         invocationData.resultsCount = Integer.parseInt(request.getParameter("results_count"));
         String[] ids = request.getParameterValues("id");
         invocationData.subIds = (ids != null) ? Arrays.asList(ids) : new ArrayList<String>();
+        MatchReceipts.record(invocationData.key, invocationData.resultsCount, invocationData.subIds.size(), received);
 
         if (request.getParameter("document") != null) {
             invocationData.lastReceivedDocument = ProspectiveSearchServiceFactory.getProspectiveSearchService().getDocument(request);
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.search.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.Index;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Index put and delete throughput, by batch size.
+ */
+@RunWith(Arquillian.class)
+public class IndexPerfTest extends SearchPerfTestBase {
+    private static final int[] BATCH_SIZES = {1, 10, 50, 100, MAX_BATCH};
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Test
+    public void testPut() throws Exception {
+        for (final int batch : BATCH_SIZES) {
+            final Index index = newIndex("perf-put-" + batch);
+            final List<Document> documents = new ArrayList<>();
+            try {
+                Benchmark.of("search.put." + batch).warmup(1).iterations(getIterations()).operations(batch).run(new BenchmarkTask() {
+                    private int next;
+
+                    public void before(int iteration) throws Exception {
+                        documents.clear();
+                        documents.addAll(newDocs(next, batch));
+                        next += batch;
+                    }
+
+                    public void run(int iteration) {
+                        index.put(documents);
+                    }
+                });
+                // last batch is stored as built
+                for (Document document : documents) {
+                    Document stored = index.get(document.getId());
+                    assertEquals(document.getId(), document.getOnlyField("numfield").getNumber(), stored.getOnlyField("numfield").getNumber());
+                }
+                sync();
+                assertEquals((getIterations() + 1) * batch, count(index));
+            } finally {
+                clear(index);
+            }
+        }
+    }
+
+    @Test
+    public void testDelete() throws Exception {
+        for (final int batch : BATCH_SIZES) {
+            final Index index = newIndex("perf-delete-" + batch);
+            final List<String> ids = new ArrayList<>();
+            try {
+                Benchmark.of("search.delete." + batch).warmup(1).iterations(getIterations()).operations(batch).run(new BenchmarkTask() {
+                    private int next;
+
+                    public void before(int iteration) throws Exception {
+                        List<Document> documents = newDocs(next, batch);
+                        next += batch;
+                        index.put(documents);
+                        ids.clear();
+                        for (Document document : documents) {
+                            ids.add(document.getId());
+                        }
+                    }
+
+                    public void run(int iteration) {
+                        index.delete(ids);
+                    }
+                });
+                for (String id : ids) {
+                    assertNull(id, index.get(id));
+                }
+                sync();
+                assertEquals(0, count(index));
+            } finally {
+                clear(index);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.search.perf;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.appengine.api.search.Index;
+import com.google.appengine.api.search.Query;
+import com.google.appengine.api.search.QueryOptions;
+import com.google.appengine.api.search.Results;
+import com.google.appengine.api.search.ScoredDocument;
+import com.google.appengine.api.search.SortExpression;
+import com.google.appengine.api.search.SortOptions;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Query latency, by query shape and index size.
+ */
+@RunWith(Arquillian.class)
+public class QueryPerfTest extends SearchPerfTestBase {
+    private static final int LIMIT = 20;
+    /**
+     * Found counts are exact up to this many documents, see QueryOptions#setNumberFoundAccuracy.
+     */
+    private static final int ACCURACY = 10000;
+    private static final double ORIGIN_LAT = 10;
+    private static final double ORIGIN_LNG = 110;
+    private static final double RADIUS = 1000000;
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    private static Map<String, Query> getQueries() {
+        Map<String, Query> queries = new LinkedHashMap<>();
+        QueryOptions limit = QueryOptions.newBuilder().setLimit(LIMIT).setNumberFoundAccuracy(ACCURACY).build();
+        queries.put("term", Query.newBuilder().setOptions(limit).build("textfield:num"));
+        queries.put("range", Query.newBuilder().setOptions(limit).build("numfield >= 10 AND numfield < 50"));
+        String geo = String.format("distance(geofield, geopoint(%s, %s)) < %s", ORIGIN_LAT, ORIGIN_LNG, RADIUS);
+        queries.put("geo", Query.newBuilder().setOptions(limit).build(geo));
+
+        SortExpression byNumber = SortExpression.newBuilder()
+            .setExpression("numfield")
+            .setDirection(SortExpression.SortDirection.DESCENDING)
+            .setDefaultValueNumeric(0)
+            .build();
+        QueryOptions sorted = QueryOptions.newBuilder()
+            .setLimit(LIMIT)
+            .setNumberFoundAccuracy(ACCURACY)
+            .setSortOptions(SortOptions.newBuilder().addSortExpression(byNumber))
+            .build();
+        queries.put("sort", Query.newBuilder().setOptions(sorted).build("text"));
+
+        QueryOptions snippets = QueryOptions.newBuilder()
+            .setLimit(LIMIT)
+            .setNumberFoundAccuracy(ACCURACY)
+            .setFieldsToSnippet("textfield")
+            .build();
+        queries.put("snippet", Query.newBuilder().setOptions(snippets).build("text"));
+        return queries;
+    }
+
+    /**
+     * Expected matches among the documents built by newDocs(0, size).
+     */
+    private static long getExpectedFound(String query, int size) {
+        switch (query) {
+            case "range":
+                return Math.max(0, Math.min(size, 50) - 10);
+            case "geo":
+                long found = 0;
+                for (int i = 0; i < size; i++) {
+                    // same point as newDocs
+                    if (distance(i % 80, 100 + i % 80) < RADIUS) {
+                        found++;
+                    }
+                }
+                return found;
+            default:
+                // every document has "text with num i" in its textfield
+                return size;
+        }
+    }
+
+    /**
+     * Haversine distance from the query origin, in meters.
+     */
+    private static double distance(double lat, double lng) {
+        double dLat = Math.toRadians(lat - ORIGIN_LAT);
+        double dLng = Math.toRadians(lng - ORIGIN_LNG);
+        double a = Math.pow(Math.sin(dLat / 2), 2) + Math.cos(Math.toRadians(ORIGIN_LAT)) * Math.cos(Math.toRadians(lat)) * Math.pow(Math.sin(dLng / 2), 2);
+        return 2 * 6371010 * Math.asin(Math.sqrt(a));
+    }
+
+    @Test
+    public void testQueries() throws Exception {
+        Map<String, Query> queries = getQueries();
+        for (int size : getIndexSizes()) {
+            Index index = newIndex("perf-query-" + size);
+            try {
+                fill(index, size);
+                for (Map.Entry<String, Query> entry : queries.entrySet()) {
+                    String name = "search.query." + entry.getKey() + "." + size;
+                    SearchTask task = new SearchTask(index, entry.getValue());
+                    Benchmark.of(name).warmup(2).iterations(getIterations()).run(task);
+
+                    Results<ScoredDocument> results = task.getLast();
+                    long expected = getExpectedFound(entry.getKey(), size);
+                    if (size <= ACCURACY) {
+                        assertEquals(name, expected, results.getNumberFound());
+                    } else {
+                        assertTrue(name, results.getNumberFound() > 0);
+                    }
+                    assertEquals(name, Math.min(expected, LIMIT), results.getNumberReturned());
+                    if ("sort".equals(entry.getKey())) {
+                        ScoredDocument first = results.iterator().next();
+                        assertEquals(name, size - 1, first.getOnlyField("numfield").getNumber().intValue());
+                    } else if ("snippet".equals(entry.getKey())) {
+                        ScoredDocument first = results.iterator().next();
+                        assertFalse(name, first.getExpressions().isEmpty());
+                    }
+                }
+            } finally {
+                clear(index);
+            }
+        }
+    }
+
+    private static class SearchTask extends BenchmarkTask {
+        private final Index index;
+        private final Query query;
+        private volatile Results<ScoredDocument> last;
+
+        private SearchTask(Index index, Query query) {
+            this.index = index;
+            this.query = query;
+        }
+
+        public void run(int iteration) {
+            last = index.search(query);
+        }
+
+        private Results<ScoredDocument> getLast() {
+            return last;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.search.perf;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.GetRequest;
+import com.google.appengine.api.search.GetResponse;
+import com.google.appengine.api.search.Index;
+import com.google.appengine.api.search.IndexSpec;
+import com.google.appengine.tck.base.TestContext;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.search.SearchHelperTestBase;
+import com.google.appengine.tck.stats.Histogram;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+
+/**
+ * Search benchmarks base.
+ */
+public abstract class SearchPerfTestBase extends SearchHelperTestBase {
+    /**
+     * Max documents per put / delete call.
+     */
+    protected static final int MAX_BATCH = 200;
+
+    protected static WebArchive getPerfDeployment() {
+        TestContext context = new TestContext().setUseSystemProperties(true).setCompatibilityProperties(TCK_PROPERTIES);
+        WebArchive war = getHelperDeployment(getTckDeployment(context));
+        war.addClass(SearchPerfTestBase.class);
+        war.addPackage(Benchmark.class.getPackage());
+        war.addClass(Histogram.class);
+        return war;
+    }
+
+    protected static int getIterations() {
+        return Integer.parseInt(getTestSystemProperty("tck.benchmark.iterations", "10"));
+    }
+
+    /**
+     * Index sizes to query, e.g. -Dtck.search.index.sizes=100,1000,10000
+     */
+    protected static int[] getIndexSizes() {
+        String[] tokens = getTestSystemProperty("tck.search.index.sizes", "100,1000").split(",");
+        int[] sizes = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            sizes[i] = Integer.parseInt(tokens[i].trim());
+        }
+        return sizes;
+    }
+
+    /**
+     * Fresh index per run, so leftovers of a failed run don't skew the numbers.
+     */
+    protected Index newIndex(String name) {
+        return searchService.getIndex(IndexSpec.newBuilder().setName(name + "-" + System.currentTimeMillis()));
+    }
+
+    protected void fill(Index index, int count) throws ParseException {
+        for (int i = 0; i < count; i += MAX_BATCH) {
+            index.put(newDocs(i, Math.min(MAX_BATCH, count - i)));
+        }
+        sync();
+    }
+
+    /**
+     * Number of documents, via id-only range reads.
+     */
+    protected long count(Index index) {
+        long count = 0;
+        String start = null;
+        while (true) {
+            GetRequest.Builder builder = GetRequest.newBuilder().setReturningIdsOnly(true).setLimit(MAX_BATCH);
+            if (start != null) {
+                builder.setStartId(start).setIncludeStart(false);
+            }
+            GetResponse<Document> response = index.getRange(builder.build());
+            int read = 0;
+            for (Document document : response) {
+                start = document.getId();
+                read++;
+            }
+            if (read == 0) {
+                return count;
+            }
+            count += read;
+        }
+    }
+
+    protected void clear(Index index) {
+        GetRequest request = GetRequest.newBuilder().setReturningIdsOnly(true).setLimit(MAX_BATCH).build();
+        while (true) {
+            GetResponse<Document> response = index.getRange(request);
+            List<String> ids = new ArrayList<>();
+            for (Document document : response) {
+                ids.add(document.getId());
+            }
+            if (ids.isEmpty()) {
+                break;
+            }
+            index.delete(ids);
+        }
+    }
+}
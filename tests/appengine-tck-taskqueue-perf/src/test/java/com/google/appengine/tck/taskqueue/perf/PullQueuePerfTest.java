@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.taskqueue.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.appengine.api.taskqueue.Queue;
+import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.appengine.api.taskqueue.TaskHandle;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.appengine.tck.await.Await;
+import com.google.appengine.tck.await.Condition;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.stats.Histogram;
+import org.jboss.arquillian.junit.Arquillian;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Pull queue lease and delete throughput, by lease batch size.
+ */
+@RunWith(Arquillian.class)
+public class PullQueuePerfTest extends QueuePerfTestBase {
+    private static final int[] LEASE_SIZES = {1, 10, 100, 1000};
+
+    private final Queue queue = QueueFactory.getQueue("perf-pull");
+
+    @After
+    public void tearDown() {
+        queue.purge();
+    }
+
+    @Test
+    public void testLeaseTasks() throws Exception {
+        for (final int size : LEASE_SIZES) {
+            final int count = getTaskCount();
+            addPullTasks(count);
+
+            final Histogram latency = new Histogram();
+            final AtomicLong elapsed = new AtomicLong();
+            int leased = Await.atMost(count / 10 + 60, TimeUnit.SECONDS).until(new Condition<Integer>() {
+                private int leased;
+
+                public Integer get() throws Exception {
+                    while (leased < count) {
+                        long start = System.nanoTime();
+                        List<TaskHandle> tasks = queue.leaseTasks(60, TimeUnit.SECONDS, size);
+                        if (tasks.isEmpty()) {
+                            break; // not yet visible, poll again
+                        }
+                        queue.deleteTask(tasks);
+                        long time = System.nanoTime() - start;
+                        elapsed.addAndGet(time);
+                        latency.record(time / 1000);
+                        leased += tasks.size();
+                    }
+                    return leased;
+                }
+
+                @Override
+                public boolean isSatisfied(Integer value) {
+                    return value >= count;
+                }
+
+                @Override
+                public String toString() {
+                    return "Leased[" + leased + " >= " + count + "]";
+                }
+            });
+            Benchmark.report("taskqueue.lease." + size, size, latency, elapsed.get());
+            assertEquals(count, leased);
+        }
+    }
+
+    private void addPullTasks(int count) {
+        for (int i = 0; i < count; i += MAX_BATCH) {
+            List<TaskOptions> tasks = new ArrayList<>(MAX_BATCH);
+            for (int j = i; j < Math.min(count, i + MAX_BATCH); j++) {
+                tasks.add(TaskOptions.Builder.withMethod(TaskOptions.Method.PULL).payload("task-" + j));
+            }
+            queue.add(tasks);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.taskqueue.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import com.google.appengine.api.taskqueue.Queue;
+import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.appengine.api.taskqueue.TaskHandle;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkTask;
+import org.jboss.arquillian.junit.Arquillian;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Push queue enqueue cost, and enqueue to execution latency, per queue configuration.
+ */
+@RunWith(Arquillian.class)
+public class PushQueuePerfTest extends QueuePerfTestBase {
+    private static final String[] QUEUES = {"perf-100", "perf-500"};
+
+    @Test
+    public void testSingleAdd() throws Exception {
+        for (String name : QUEUES) {
+            final Queue queue = QueueFactory.getQueue(name);
+            final String run = newRun();
+            final int count = getTaskCount();
+            long start = System.currentTimeMillis();
+            Benchmark.of("taskqueue.add.single." + name).warmup(0).iterations(count).run(new BenchmarkTask() {
+                public void run(int iteration) {
+                    queue.add(newTask(run));
+                }
+            });
+            reportExecutions("taskqueue.add.single." + name, run, count, start);
+        }
+    }
+
+    @Test
+    public void testBatchAdd() throws Exception {
+        for (String name : QUEUES) {
+            final Queue queue = QueueFactory.getQueue(name);
+            final String run = newRun();
+            final int count = getTaskCount();
+            long start = System.currentTimeMillis();
+            Benchmark.of("taskqueue.add.batch." + name).warmup(0).iterations(batches(count)).operations(Math.min(count, MAX_BATCH)).run(new BenchmarkTask() {
+                public void run(int iteration) {
+                    queue.add(newTasks(run, batchSize(count, iteration)));
+                }
+            });
+            reportExecutions("taskqueue.add.batch." + name, run, count, start);
+        }
+    }
+
+    @Test
+    public void testAsyncAdd() throws Exception {
+        for (String name : QUEUES) {
+            final Queue queue = QueueFactory.getQueue(name);
+            final String run = newRun();
+            final int count = getTaskCount();
+            long start = System.currentTimeMillis();
+            Benchmark.of("taskqueue.addAsync." + name).warmup(0).iterations(batches(count)).operations(Math.min(count, MAX_BATCH)).run(new BenchmarkTask() {
+                public void run(int iteration) throws Exception {
+                    List<Future<TaskHandle>> futures = new ArrayList<>(MAX_BATCH);
+                    for (TaskOptions task : newTasks(run, batchSize(count, iteration))) {
+                        futures.add(queue.addAsync(task));
+                    }
+                    for (Future<TaskHandle> future : futures) {
+                        future.get();
+                    }
+                }
+            });
+            reportExecutions("taskqueue.addAsync." + name, run, count, start);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.taskqueue.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.appengine.tck.await.Await;
+import com.google.appengine.tck.await.Condition;
+import com.google.appengine.tck.base.TestBase;
+import com.google.appengine.tck.base.TestContext;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.stats.Histogram;
+import com.google.appengine.tck.taskqueue.perf.support.LatencyServlet;
+import com.google.appengine.tck.taskqueue.perf.support.RunStats;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+
+/**
+ * Task queue benchmarks base.
+ * <p/>
+ * Number of tasks per run is -Dtck.benchmark.tasks (default 1000).
+ */
+public abstract class QueuePerfTestBase extends TestBase {
+    protected static final int MAX_BATCH = 100; // Queue.add(Iterable) limit
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        TestContext context = new TestContext().setUseSystemProperties(true).setCompatibilityProperties(TCK_PROPERTIES);
+        context.setWebXmlFile("web-taskqueue-perf.xml");
+        WebArchive war = getTckDeployment(context);
+        war.addClasses(QueuePerfTestBase.class, LatencyServlet.class, RunStats.class);
+        war.addPackage(Benchmark.class.getPackage());
+        war.addClass(Histogram.class);
+        war.addAsWebInfResource("queue.xml");
+        return war;
+    }
+
+    protected static int getTaskCount() {
+        return Integer.parseInt(getTestSystemProperty("tck.benchmark.tasks", "1000"));
+    }
+
+    /**
+     * @return number of batches for count tasks, the last one possibly partial
+     */
+    protected static int batches(int count) {
+        return (count + MAX_BATCH - 1) / MAX_BATCH;
+    }
+
+    /**
+     * @return size of the batch at index
+     */
+    protected static int batchSize(int count, int batch) {
+        return Math.min(MAX_BATCH, count - batch * MAX_BATCH);
+    }
+
+    protected static String newRun() {
+        return UUID.randomUUID().toString();
+    }
+
+    protected static TaskOptions newTask(String run) {
+        return TaskOptions.Builder.withUrl(LatencyServlet.URL)
+            .param(LatencyServlet.RUN, run)
+            .param(LatencyServlet.ENQUEUED, String.valueOf(System.currentTimeMillis()));
+    }
+
+    protected static List<TaskOptions> newTasks(String run, int count) {
+        List<TaskOptions> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(newTask(run));
+        }
+        return tasks;
+    }
+
+    /**
+     * Wait for all run's tasks, then report execution latency and sustained throughput.
+     *
+     * @param name  the benchmark name
+     * @param run   the run
+     * @param count expected executions
+     * @param start when enqueuing started
+     */
+    protected void reportExecutions(String name, final String run, final int count, long start) {
+        Await.atMost(count / 10 + 60, TimeUnit.SECONDS).pollInterval(500, TimeUnit.MILLISECONDS).until(new Condition<Integer>() {
+            public Integer get() throws Exception {
+                return LatencyServlet.countExecutions(run);
+            }
+
+            @Override
+            public boolean isSatisfied(Integer value) {
+                return value >= count;
+            }
+
+            @Override
+            public String toString() {
+                return "Executions[" + run + " >= " + count + "]";
+            }
+        });
+        RunStats stats = LatencyServlet.getRun(run);
+        long elapsed = TimeUnit.MILLISECONDS.toNanos(stats.getLastExecution() - start);
+        Benchmark.report(name + ".latency", 1, stats.getLatency(), elapsed);
+        Benchmark.report(name + ".etalag", 1, stats.getEtaLag(), elapsed);
+        LatencyServlet.reset(run);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.taskqueue.perf.support;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
+
+/**
+ * Records enqueue to execution latency, and ETA to execution lag, per run.
+ * <p/>
+ * Executions are stored in datastore, as tasks can run on any instance.
+ */
+public class LatencyServlet extends HttpServlet {
+    public static final String URL = "/_ah/perf/latency";
+    public static final String RUN = "run";
+    public static final String ENQUEUED = "enqueued";
+
+    private static final String TASK_ETA = "X-AppEngine-TaskETA";
+
+    private static final String KIND = "TaskExecution";
+    private static final String LATENCY = "latency";
+    private static final String ETA_LAG = "etaLag";
+    private static final String EXECUTED_AT = "executedAt";
+
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        final long now = System.currentTimeMillis();
+        final String run = req.getParameter(RUN);
+        final long enqueued = Long.parseLong(req.getParameter(ENQUEUED));
+        final String eta = req.getHeader(TASK_ETA); // seconds since epoch, with fraction
+        final long etaLag = (eta != null) ? Math.max(0L, now - (long) (Double.parseDouble(eta) * 1000)) : -1;
+
+        Entity execution = new Entity(KIND);
+        execution.setProperty(RUN, run);
+        execution.setUnindexedProperty(LATENCY, now - enqueued);
+        execution.setUnindexedProperty(ETA_LAG, etaLag);
+        execution.setUnindexedProperty(EXECUTED_AT, now);
+        DatastoreServiceFactory.getDatastoreService().put(execution);
+    }
+
+    private static Query runQuery(String run) {
+        return new Query(KIND).setFilter(new FilterPredicate(RUN, FilterOperator.EQUAL, run));
+    }
+
+    /**
+     * @param run the run
+     * @return executions stored so far; eventually consistent
+     */
+    public static int countExecutions(String run) {
+        DatastoreService ds = DatastoreServiceFactory.getDatastoreService();
+        return ds.prepare(runQuery(run).setKeysOnly()).countEntities(FetchOptions.Builder.withDefaults());
+    }
+
+    public static RunStats getRun(String run) {
+        DatastoreService ds = DatastoreServiceFactory.getDatastoreService();
+        RunStats stats = new RunStats();
+        for (Entity execution : ds.prepare(runQuery(run)).asIterable(FetchOptions.Builder.withChunkSize(500))) {
+            stats.record((Long) execution.getProperty(LATENCY), (Long) execution.getProperty(ETA_LAG), (Long) execution.getProperty(EXECUTED_AT));
+        }
+        return stats;
+    }
+
+    public static void reset(String run) {
+        DatastoreService ds = DatastoreServiceFactory.getDatastoreService();
+        List<Key> keys = new ArrayList<>();
+        for (Entity execution : ds.prepare(runQuery(run).setKeysOnly()).asIterable()) {
+            keys.add(execution.getKey());
+        }
+        for (int i = 0; i < keys.size(); i += 500) {
+            ds.delete(keys.subList(i, Math.min(i + 500, keys.size())));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.taskqueue.perf.support;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.appengine.tck.stats.Histogram;
+
+/**
+ * Task executions of a single benchmark run, as read back from datastore.
+ */
+public class RunStats {
+    private final Histogram latency = new Histogram();
+    private final Histogram etaLag = new Histogram();
+    private final AtomicInteger executed = new AtomicInteger();
+    private volatile long lastExecution;
+
+    void record(long latencyMillis, long etaLagMillis, long now) {
+        latency.record(Math.max(0L, latencyMillis) * 1000);
+        if (etaLagMillis >= 0) {
+            etaLag.record(etaLagMillis * 1000);
+        }
+        lastExecution = Math.max(lastExecution, now);
+        executed.incrementAndGet();
+    }
+
+    /**
+     * @return enqueue to handler latency, in microseconds
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return task ETA to handler lag, in microseconds
+     */
+    public Histogram getEtaLag() {
+        return etaLag;
+    }
+
+    public int getExecuted() {
+        return executed.get();
+    }
+
+    public long getLastExecution() {
+        return lastExecution;
+    }
+}
@@ -20,12 +20,15 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import com.google.appengine.api.memcache.MemcacheService;
 import com.google.appengine.api.memcache.MemcacheServiceFactory;
 import com.google.appengine.api.taskqueue.Queue;
 import com.google.appengine.api.taskqueue.QueueFactory;
 import com.google.appengine.api.taskqueue.TaskHandle;
+import com.google.appengine.tck.await.Await;
+import com.google.appengine.tck.await.Condition;
 import com.google.appengine.tck.base.TestBase;
 import com.google.appengine.tck.base.TestContext;
 import com.google.appengine.tck.taskqueue.support.DatastoreUtil;
@@ -101,52 +104,58 @@ public abstract class QueueTestBase extends TestBase {
      * @return the current value from memcache (targetValue, not targetValue, or null)
      */
     @SuppressWarnings("unchecked")
-    protected <T> T waitForTestData(String key, T targetValue) {
-        int milliSeconds = 0;
-        int maxMilliSeconds = 30 * 1000;
-
-        T currentValue = (T) cache.get(key);
-
-        while (currentValue == null && milliSeconds <= maxMilliSeconds) {
-            sync(1000);
-            milliSeconds += 1000;
-            currentValue = (T) cache.get(key);
-        }
-
-        if (!cache.contains(key)) {
-            log.warning("cache item:" + key + " does not exist.");
-            return null;
-        }
+    protected <T> T waitForTestData(final String key, final T targetValue) {
+        T currentValue = Await.atMost(30, TimeUnit.SECONDS).poll(new Condition<T>() {
+            public T get() {
+                return (T) cache.get(key);
+            }
+
+            @Override
+            public boolean isSatisfied(T value) {
+                return (value != null && value.equals(targetValue));
+            }
+
+            @Override
+            public String toString() {
+                return "TestData[" + key + " == " + targetValue + "]";
+            }
+        });
 
         if (currentValue == null) {
-            log.warning("cache item: " + key + " exists, but is null.");
+            if (!cache.contains(key)) {
+                log.warning("cache item:" + key + " does not exist.");
+            } else {
+                log.warning("cache item: " + key + " exists, but is null.");
+            }
             return null;
         }
 
-        while (!currentValue.equals(targetValue) && milliSeconds <= maxMilliSeconds) {
-            sync(1000);
-            milliSeconds += 1000;
-            currentValue = (T) cache.get(key);
-        }
-
         return currentValue;
     }
 
     @SuppressWarnings("unchecked")
-    protected <T> T waitForTestDataToExist(String key) {
-        int milliSeconds = 0;
-        int maxMilliSeconds = 20 * 1000;
-
-        T currentValue = (T) cache.get(key);
-
-        while (!cache.contains(key) && milliSeconds <= maxMilliSeconds) {
+    protected <T> T waitForTestDataToExist(final String key) {
+        boolean exists = Await.atMost(20, TimeUnit.SECONDS).poll(new Condition<Boolean>() {
+            public Boolean get() {
+                return cache.contains(key);
+            }
+
+            @Override
+            public boolean isSatisfied(Boolean value) {
+                return value;
+            }
+
+            @Override
+            public String toString() {
+                return "TestData[" + key + "]";
+            }
+        });
+
+        if (!exists) {
             log.info(key + ": does not exist.");
-            sync(1000);
-            milliSeconds += 1000;
-            currentValue = (T) cache.get(key);
         }
 
-        return currentValue;
+        return (T) cache.get(key);
     }
 
     /**
@@ -19,6 +19,7 @@ import java.io.Serializable;
 import java.util.Enumeration;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -31,6 +32,8 @@ import com.google.appengine.api.datastore.Query.CompositeFilterOperator;
 import com.google.appengine.api.datastore.Query.FilterOperator;
 import com.google.appengine.api.datastore.Query.FilterPredicate;
 import com.google.appengine.api.datastore.Transaction;
+import com.google.appengine.tck.await.Await;
+import com.google.appengine.tck.await.Condition;
 
 import static com.google.appengine.tck.taskqueue.support.Constants.EXECUTED_AT;
 import static com.google.appengine.tck.taskqueue.support.Constants.MARKER;
@@ -117,18 +120,19 @@ public class DatastoreUtil implements Serializable {
         }
     }
 
-    public Entity waitForTaskThenFetchEntity(int waitIntervalSecs, int retryMax, String testMethodTag) {
-        long waitIntervalMilliSecs = waitIntervalSecs * 1000;
-        Entity entity;
-
-        for (int i = 0; i < retryMax; i++) {
-            sleep(waitIntervalMilliSecs);
-            entity = fetchEntity(testMethodTag);
-            if (entity != null) {
-                return entity;
-            }
-        }
-        return null;
+    public Entity waitForTaskThenFetchEntity(int waitIntervalSecs, int retryMax, final String testMethodTag) {
+        return Await.atMost(waitIntervalSecs * retryMax, TimeUnit.SECONDS)
+            .maxPollInterval(waitIntervalSecs, TimeUnit.SECONDS)
+            .poll(new Condition<Entity>() {
+                public Entity get() {
+                    return fetchEntity(testMethodTag);
+                }
+
+                @Override
+                public String toString() {
+                    return "Task[" + testRunId + ", " + testMethodTag + "]";
+                }
+            });
     }
 
     public void assertTaskParamsMatchEntityProperties(Map<String, String> paramMap, Entity entity) {
@@ -164,15 +168,6 @@ public class DatastoreUtil implements Serializable {
         return CompositeFilterOperator.and(testRunFilter, method);
     }
 
-    private void sleep(long milliSecs) {
-        try {
-            Thread.sleep(milliSecs);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IllegalStateException(e);
-        }
-    }
-
     private Entity fetchEntity(String testMethodTag) {
         DatastoreService datastoreService = DatastoreServiceFactory.getDatastoreService();
         Query query = new Query(entityName);
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.urlfetch.perf;
+
+import java.net.URL;
+
+import com.google.appengine.api.urlfetch.FetchOptions;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Throughput and latency by number of concurrent fetchAsync calls,
+ * e.g. -Dtck.urlfetch.concurrency=10,100,1000
+ */
+@RunWith(Arquillian.class)
+public class ConcurrencyPerfTest extends URLFetchPerfTestBase {
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Test
+    public void testConcurrency() throws Exception {
+        URL url = getUrl("respond");
+        for (int concurrency : getIntsProperty("tck.urlfetch.concurrency", "10,100,1000")) {
+            fanOut("urlfetch.concurrency." + concurrency, url, FetchOptions.Builder.withDefaults(), concurrency);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.urlfetch.perf;
+
+import com.google.appengine.api.urlfetch.FetchOptions;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Redirect and deadline cost; the deadline benchmarks mostly report timeout rates.
+ * A deadline shorter than the response delay must time out, a generous one must not.
+ */
+@RunWith(Arquillian.class)
+public class FetchOptionsPerfTest extends URLFetchPerfTestBase {
+    private static final int CONCURRENCY = 10;
+    private static final int[] HOPS = {0, 1, 3};
+    private static final double[] DEADLINES = {0.25, 1.0, 5.0};
+    private static final int SLEEP_MILLIS = 500;
+    private static final int GENEROUS_MILLIS = 10 * SLEEP_MILLIS;
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Test
+    public void testRedirects() throws Exception {
+        for (int hops : HOPS) {
+            FetchOptions options = FetchOptions.Builder.followRedirects();
+            fanOut("urlfetch.redirect." + hops, getUrl("respond?action=redirect&hops=" + hops), options, CONCURRENCY);
+        }
+    }
+
+    @Test
+    public void testDeadlines() throws Exception {
+        for (double deadline : DEADLINES) {
+            String name = "urlfetch.deadline." + deadline;
+            FetchOptions options = FetchOptions.Builder.withDeadline(deadline);
+            Failures failures = new Failures();
+            fanOut(name, getUrl("respond?action=sleep&millis=" + SLEEP_MILLIS), options, CONCURRENCY, failures);
+            if (deadline * 1000 < SLEEP_MILLIS) {
+                assertEquals(name, getRounds() * CONCURRENCY, failures.getTimeouts());
+            } else if (deadline * 1000 >= GENEROUS_MILLIS) {
+                assertEquals(name, 0, failures.getTimeouts() + failures.getErrors());
+            }
+        }
+    }
+}
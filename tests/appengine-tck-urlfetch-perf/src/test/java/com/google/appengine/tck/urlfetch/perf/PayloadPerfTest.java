@@ -0,0 +1,44 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.urlfetch.perf;
+
+import com.google.appengine.api.urlfetch.FetchOptions;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Throughput and latency by response size (in bytes),
+ * e.g. -Dtck.urlfetch.payloads=16,65536,4194304
+ */
+@RunWith(Arquillian.class)
+public class PayloadPerfTest extends URLFetchPerfTestBase {
+    private static final int CONCURRENCY = 10;
+
+    @Deployment
+    public static WebArchive getDeployment() {
+        return getPerfDeployment();
+    }
+
+    @Test
+    public void testPayloads() throws Exception {
+        for (int size : getIntsProperty("tck.urlfetch.payloads", "16,1024,65536,1048576,4194304")) {
+            fanOut("urlfetch.payload." + size, getUrl("respond?action=bytes&size=" + size), FetchOptions.Builder.withDefaults(), CONCURRENCY);
+        }
+    }
+}
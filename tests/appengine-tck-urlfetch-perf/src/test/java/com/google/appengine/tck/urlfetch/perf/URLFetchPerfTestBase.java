@@ -0,0 +1,188 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.appengine.tck.urlfetch.perf;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import com.google.appengine.api.urlfetch.FetchOptions;
+import com.google.appengine.api.urlfetch.HTTPMethod;
+import com.google.appengine.api.urlfetch.HTTPRequest;
+import com.google.appengine.api.urlfetch.HTTPResponse;
+import com.google.appengine.api.urlfetch.URLFetchService;
+import com.google.appengine.api.urlfetch.URLFetchServiceFactory;
+import com.google.appengine.tck.base.TestContext;
+import com.google.appengine.tck.benchmark.Benchmark;
+import com.google.appengine.tck.benchmark.BenchmarkResult;
+import com.google.appengine.tck.stats.Histogram;
+import com.google.appengine.tck.urlfetch.URLFetchHelperTestBase;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * URL Fetch benchmarks base.
+ * <p/>
+ * Requests are fanned out with fetchAsync, against the app's own responders.
+ * Besides latency, every benchmark logs failures as "ERRORS name,requests,timeouts,errors";
+ * only successful requests are in the latency figures.
+ */
+public abstract class URLFetchPerfTestBase extends URLFetchHelperTestBase {
+    private static final Logger log = Logger.getLogger(URLFetchPerfTestBase.class.getName());
+
+    private static final long POLL_NANOS = 100 * 1000;
+
+    protected static WebArchive getPerfDeployment() {
+        TestContext context = new TestContext().setUseSystemProperties(true).setCompatibilityProperties(TCK_PROPERTIES);
+        WebArchive war = getHelperDeployment(context);
+        war.addClass(URLFetchPerfTestBase.class);
+        war.addPackage(Benchmark.class.getPackage());
+        war.addClass(Histogram.class);
+        return war;
+    }
+
+    protected static int getRounds() {
+        return Integer.parseInt(getTestSystemProperty("tck.benchmark.iterations", "3"));
+    }
+
+    protected static int[] getIntsProperty(String key, String defaultValue) {
+        String[] tokens = getTestSystemProperty(key, defaultValue).split(",");
+        int[] values = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            values[i] = Integer.parseInt(tokens[i].trim());
+        }
+        return values;
+    }
+
+    /**
+     * Issue concurrent fetchAsync calls, in rounds, and wait for all of them; none may fail.
+     *
+     * @param name        the benchmark name
+     * @param url         the url
+     * @param options     the fetch options
+     * @param concurrency requests in flight per round
+     * @return the result
+     */
+    protected BenchmarkResult fanOut(String name, URL url, FetchOptions options, int concurrency) throws Exception {
+        Failures failures = new Failures();
+        BenchmarkResult result = fanOut(name, url, options, concurrency, failures);
+        assertEquals(name + " timeouts", 0, failures.getTimeouts());
+        assertEquals(name + " errors", 0, failures.getErrors());
+        return result;
+    }
+
+    /**
+     * Issue concurrent fetchAsync calls, in rounds, and wait for all of them.
+     * <p/>
+     * Each latency is taken when its own response is done, in whatever order they complete.
+     *
+     * @param name        the benchmark name
+     * @param url         the url
+     * @param options     the fetch options
+     * @param concurrency requests in flight per round
+     * @param failures    failures of the timed rounds
+     * @return the result
+     */
+    protected BenchmarkResult fanOut(String name, URL url, FetchOptions options, int concurrency, Failures failures) throws Exception {
+        URLFetchService service = URLFetchServiceFactory.getURLFetchService();
+        // warmup
+        fanOut(service, url, options, Math.min(concurrency, 10), new Histogram(), new Failures());
+
+        Histogram latency = new Histogram();
+        long elapsed = 0;
+        for (int round = 0; round < getRounds(); round++) {
+            elapsed += fanOut(service, url, options, concurrency, latency, failures);
+        }
+
+        log.info(String.format("ERRORS %s,%s,%s,%s", name, getRounds() * concurrency, failures.getTimeouts(), failures.getErrors()));
+        return Benchmark.report(name, 1, latency, elapsed);
+    }
+
+    private static long fanOut(URLFetchService service, URL url, FetchOptions options, int concurrency, Histogram latency, Failures failures) throws InterruptedException {
+        List<Future<HTTPResponse>> futures = new ArrayList<>(concurrency);
+        long[] starts = new long[concurrency];
+        final long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            starts[i] = System.nanoTime();
+            futures.add(service.fetchAsync(new HTTPRequest(url, HTTPMethod.GET, options)));
+        }
+        boolean[] collected = new boolean[concurrency];
+        int pending = concurrency;
+        while (pending > 0) {
+            boolean progress = false;
+            for (int i = 0; i < concurrency; i++) {
+                if (collected[i] == false && futures.get(i).isDone()) {
+                    collect(futures.get(i), System.nanoTime() - starts[i], latency, failures);
+                    collected[i] = true;
+                    pending--;
+                    progress = true;
+                }
+            }
+            if (progress == false) {
+                LockSupport.parkNanos(POLL_NANOS);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void collect(Future<HTTPResponse> future, long nanos, Histogram latency, Failures failures) throws InterruptedException {
+        try {
+            HTTPResponse response = future.get();
+            if (response.getResponseCode() == 200) {
+                latency.record(nanos / 1000);
+            } else {
+                failures.errors++;
+            }
+        } catch (ExecutionException e) {
+            if (isTimeout(e.getCause())) {
+                failures.timeouts++;
+            } else {
+                failures.errors++;
+            }
+        }
+    }
+
+    private static boolean isTimeout(Throwable t) {
+        if (t instanceof SocketTimeoutException) {
+            return true;
+        }
+        // some environments report deadline as plain IOException
+        return (t instanceof IOException) && String.valueOf(t.getMessage()).toLowerCase().contains("timeout");
+    }
+
+    /**
+     * Failed requests, by kind.
+     */
+    protected static class Failures {
+        private int timeouts;
+        private int errors;
+
+        public int getTimeouts() {
+            return timeouts;
+        }
+
+        public int getErrors() {
+            return errors;
+        }
+    }
+}
@@ -15,7 +15,6 @@
 
 package com.google.appengine.tck.urlfetch.support;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -24,12 +23,16 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.google.appengine.tck.util.IOUtils;
+
 /**
  * @author <a href="mailto:ales.justin@jboss.org">Ales Justin</a>
  */
 public class FetchServlet extends HttpServlet {
     protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        String content = new String(toBytes(req.getInputStream()));
+        int length = req.getContentLength();
+        byte[] bytes = (length >= 0) ? IOUtils.toBytes(req.getInputStream(), length, true) : toBytes(req.getInputStream());
+        String content = new String(bytes);
         if ("Tralala".equals(content)) {
             resp.getWriter().write("Hopsasa");
         } else if ("Juhuhu".equals(content)) {
@@ -46,15 +49,6 @@ public class FetchServlet extends HttpServlet {
     }
 
     public static byte[] toBytes(InputStream is) throws IOException {
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            int b;
-            while ((b = is.read()) != -1) {
-                baos.write(b);
-            }
-            return baos.toByteArray();
-        } finally {
-            is.close();
-        }
+        return IOUtils.toBytes(is, true);
     }
 }
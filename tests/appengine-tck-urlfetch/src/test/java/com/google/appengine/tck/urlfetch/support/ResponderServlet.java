@@ -16,7 +16,9 @@
 package com.google.appengine.tck.urlfetch.support;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.Arrays;
 
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -29,6 +31,12 @@ public class ResponderServlet extends HttpServlet {
 
     public static final String DEFAULT_CONTENT = "Hello, world";
 
+    private static final byte[] CHUNK = new byte[8192];
+
+    static {
+        Arrays.fill(CHUNK, (byte) 'x');
+    }
+
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
         throws IOException {
@@ -46,8 +54,34 @@ public class ResponderServlet extends HttpServlet {
                 // ignored
             }
             response.getWriter().println("Slept 10 seconds\n");
+        } else if (action.equals("sleep")) {
+            long millis = Long.parseLong(request.getParameter("millis"));
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                // ignored
+            }
+            response.getWriter().print("Slept " + millis + " millis");
+        } else if (action.equals("bytes")) {
+            writeBytes(response, Integer.parseInt(request.getParameter("size")));
+        } else if (action.equals("redirect")) {
+            int hops = Integer.parseInt(request.getParameter("hops"));
+            if (hops > 0) {
+                response.sendRedirect(request.getRequestURI() + "?action=redirect&hops=" + (hops - 1));
+            } else {
+                response.getWriter().print(DEFAULT_CONTENT);
+            }
         } else {
             response.sendError(500, "unknown action: " + action);
         }
     }
+
+    private static void writeBytes(HttpServletResponse response, int size) throws IOException {
+        response.setContentType("application/octet-stream");
+        response.setContentLength(size);
+        OutputStream out = response.getOutputStream();
+        for (int remaining = size; remaining > 0; remaining -= CHUNK.length) {
+            out.write(CHUNK, 0, Math.min(remaining, CHUNK.length));
+        }
+    }
 }
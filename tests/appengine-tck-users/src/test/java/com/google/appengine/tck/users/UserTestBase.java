@@ -21,6 +21,7 @@ import com.google.appengine.tck.users.support.ServletAnswer;
 import com.google.appengine.tck.users.support.UserServiceServlet;
 import com.google.appengine.tck.util.AuthClientException;
 import com.google.appengine.tck.util.GaeAuthClient;
+import com.google.appengine.tck.util.HttpClientFactory;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
 
@@ -35,7 +36,7 @@ public abstract class UserTestBase extends TestBase {
 
         WebArchive war = getTckDeployment(context);
 
-        war.addClasses(UserTestBase.class, GaeAuthClient.class, AuthClientException.class)
+        war.addClasses(UserTestBase.class, GaeAuthClient.class, AuthClientException.class, HttpClientFactory.class)
             .addClasses(UserServiceServlet.class, ServletAnswer.class);
         return war;
     }
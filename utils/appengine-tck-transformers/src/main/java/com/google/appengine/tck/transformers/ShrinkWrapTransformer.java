@@ -18,6 +18,7 @@ package com.google.appengine.tck.transformers;
 import java.io.File;
 import java.util.Arrays;
 
+import com.google.appengine.tck.lib.ArtifactCache;
 import org.jboss.shrinkwrap.resolver.api.maven.Maven;
 import org.jboss.shrinkwrap.resolver.api.maven.PomEquippedResolveStage;
 
@@ -31,6 +32,18 @@ public abstract class ShrinkWrapTransformer extends JavassistTransformer {
 
     protected static File[] resolve(PomEquippedResolveStage resolver, String... coordinates) {
         final File[] files = resolver.resolve(coordinates).withoutTransitivity().as(File.class);
+        return checkFiles(files, coordinates);
+    }
+
+    /**
+     * Resolve against pom, using shared artifact cache.
+     */
+    protected static File[] resolve(String pom, String... coordinates) {
+        final File[] files = ArtifactCache.resolve(pom, false, coordinates);
+        return checkFiles(files, coordinates);
+    }
+
+    private static File[] checkFiles(File[] files, String... coordinates) {
         if (files == null || files.length == 0)
             throw new IllegalArgumentException("Null or empty files (" + Arrays.toString(files) + "): " + Arrays.toString(coordinates));
         return files;